@@ -0,0 +1,108 @@
+package dooki;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import parser.StorageParser;
+import stats.Stats;
+import storage.Storage;
+import tasks.SyntheticTasks;
+
+/**
+ * Measures {@link DookiBot#getResponse(String)} for every command, end to end, against a scratch save file
+ * with background persistence as in the app.
+ * Commands that add a task are followed by deleting it again, so the list keeps its size.
+ * Each command is measured with latency recording off and on, to show what {@link Stats} costs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DookiBotBenchmark {
+    @Param({"10000"})
+    private int taskCount;
+
+    @Param({
+        "list", "list 2 50", "list ids", "find " + SyntheticTasks.COMMON_WORD, "find -w " + SyntheticTasks.COMMON_WORD,
+        "find rep*", "due 2024-03-01", "between 2024-03-01 2024-03-31", "mark 7", "unmark 7", "sort", "index",
+        "bye", "hello",
+    })
+    private String command;
+
+    @Param({"false", "true"})
+    private boolean isStatsRecorded;
+
+    private Path directory;
+    private DookiBot dookiBot;
+    private String deleteAdded;
+
+    /**
+     * Writes the synthetic tasks to a scratch save file and starts a bot on it.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        this.directory = Files.createTempDirectory("dooki-bench");
+        Path storagePath = this.directory.resolve("dooki.txt");
+        new Storage(new StorageParser(), storagePath, false, Storage.DEFAULT_COMPACTION_THRESHOLD_BYTES)
+                .save(SyntheticTasks.generate(this.taskCount, SyntheticTasks.SEED));
+        this.dookiBot = new DookiBot(storagePath, true);
+        this.deleteAdded = "delete " + (this.taskCount + 1);
+        Stats.setEnabled(this.isStatsRecorded);
+    }
+
+    /**
+     * Stops the bot and deletes the scratch save file.
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        this.dookiBot.shutdown();
+        Stats.setEnabled(false);
+        SyntheticTasks.deleteDirectory(this.directory);
+    }
+
+    /**
+     * Runs the command given by the {@code command} parameter.
+     */
+    @Benchmark
+    public String command() {
+        return this.dookiBot.getResponse(this.command);
+    }
+
+    /**
+     * Adds a todo and deletes it.
+     */
+    @Benchmark
+    public String todo() {
+        this.dookiBot.getResponse("todo " + SyntheticTasks.COMMON_WORD + " for the team");
+        return this.dookiBot.getResponse(this.deleteAdded);
+    }
+
+    /**
+     * Adds a deadline and deletes it.
+     */
+    @Benchmark
+    public String deadline() {
+        this.dookiBot.getResponse("deadline submit " + SyntheticTasks.COMMON_WORD + " /by 2024-05-01");
+        return this.dookiBot.getResponse(this.deleteAdded);
+    }
+
+    /**
+     * Adds an event and deletes it.
+     */
+    @Benchmark
+    public String event() {
+        this.dookiBot.getResponse("event team offsite /from 2024-05-01 /to 2024-05-03");
+        return this.dookiBot.getResponse(this.deleteAdded);
+    }
+}
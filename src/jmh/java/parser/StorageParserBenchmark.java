@@ -0,0 +1,49 @@
+package parser;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import exceptions.ParseStorageLineFailureException;
+import tasks.SyntheticTasks;
+import tasks.Task;
+
+/**
+ * Measures parsing one save file line, cycling through a fixed mix of todo, deadline and event lines.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StorageParserBenchmark {
+    // A power of two, so the next line is picked with a mask.
+    private static final int LINE_COUNT = 4096;
+
+    private final StorageParser parser = new StorageParser();
+    private String[] lines;
+    private int next;
+
+    /**
+     * Generates the lines to parse.
+     */
+    @Setup
+    public void setUp() {
+        List<String> generated = SyntheticTasks.lines(LINE_COUNT, SyntheticTasks.SEED);
+        this.lines = generated.toArray(new String[0]);
+    }
+
+    /**
+     * Parses the next line.
+     */
+    @Benchmark
+    public Task parseStorageLine() throws ParseStorageLineFailureException {
+        this.next = (this.next + 1) & (LINE_COUNT - 1);
+        return this.parser.parseStorageLine(this.lines[this.next]);
+    }
+}
@@ -0,0 +1,77 @@
+package storage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import parser.StorageParser;
+import tasks.SyntheticTasks;
+import tasks.Task;
+
+/**
+ * Measures loading and saving a whole save file in either format, at 1k, 100k and 1M tasks.
+ * The file lives in a scratch directory, never in {@code data/}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StorageBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    private int taskCount;
+
+    @Param({"TEXT", "BINARY"})
+    private StorageFormat format;
+
+    private Path directory;
+    private Storage storage;
+    private List<Task> tasks;
+
+    /**
+     * Writes the synthetic tasks to a scratch save file in the chosen format.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        this.directory = Files.createTempDirectory("dooki-bench");
+        this.storage = new Storage(new StorageParser(), this.directory.resolve("dooki.txt"), false,
+                Storage.DEFAULT_COMPACTION_THRESHOLD_BYTES);
+        this.tasks = SyntheticTasks.generate(this.taskCount, SyntheticTasks.SEED);
+        this.storage.save(this.tasks);
+        this.storage.convert(this.format);
+    }
+
+    /**
+     * Deletes the scratch save file.
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        SyntheticTasks.deleteDirectory(this.directory);
+    }
+
+    /**
+     * Reads and parses the whole save file.
+     */
+    @Benchmark
+    public List<Task> load() {
+        return this.storage.load();
+    }
+
+    /**
+     * Rewrites the whole save file.
+     */
+    @Benchmark
+    public void save() {
+        this.storage.save(this.tasks);
+    }
+}
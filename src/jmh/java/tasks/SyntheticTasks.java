@@ -0,0 +1,98 @@
+package tasks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import exceptions.ParseStorageLineFailureException;
+import parser.StorageParser;
+
+/**
+ * Fixed-seed synthetic task lists for the benchmarks, so that every run and every release measures the same data.
+ * Tasks are an even mix of todos, deadlines and events with 2 to 5 word descriptions, about a third of them done,
+ * and dates spread over 2024.
+ */
+public final class SyntheticTasks {
+    public static final long SEED = 20240101L;
+    /** A word that appears in roughly one description in ten. */
+    public static final String COMMON_WORD = "report";
+
+    private static final String[] WORDS = {
+        "read", "book", "return", "library", COMMON_WORD, "draft", "review", "call", "mum", "buy", "milk",
+        "project", "meeting", "submit", "tutorial", "lecture", "gym", "laundry", "groceries", "plan", "trip",
+        "fix", "bike", "email", "team", "prepare", "slides", "pay", "rent", "clean", "room", "update", "notes",
+    };
+    private static final LocalDate FIRST_DATE = LocalDate.parse("2024-01-01");
+    private static final int DAYS_IN_RANGE = 366;
+
+    private SyntheticTasks() {
+    }
+
+    /**
+     * Generates save file lines, each with its id, such as {@code "7 | D | 1 | pay rent | 2024-03-02"}.
+     * @param count Number of lines.
+     * @param seed Random seed; the same seed always gives the same lines.
+     * @return the lines, in id order.
+     */
+    public static List<String> lines(int count, long seed) {
+        Random random = new Random(seed);
+        List<String> lines = new ArrayList<>(count);
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            line.setLength(0);
+            int type = random.nextInt(3);
+            line.append(i + 1).append(" | ").append(type == 0 ? 'T' : type == 1 ? 'D' : 'E')
+                    .append(" | ").append(random.nextInt(3) == 0 ? '1' : '0').append(" | ");
+            int wordCount = 2 + random.nextInt(4);
+            for (int w = 0; w < wordCount; w++) {
+                line.append(w == 0 ? "" : " ").append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            LocalDate date = FIRST_DATE.plusDays(random.nextInt(DAYS_IN_RANGE));
+            if (type == 1) {
+                line.append(" | ").append(date);
+            } else if (type == 2) {
+                line.append(" | ").append(date).append(" | ").append(date.plusDays(random.nextInt(5)));
+            }
+            lines.add(line.toString());
+        }
+        return lines;
+    }
+
+    /**
+     * Generates the tasks that {@link #lines(int, long)} describes.
+     * @param count Number of tasks.
+     * @param seed Random seed.
+     * @return the tasks, with ids 1 to {@code count}.
+     */
+    public static List<Task> generate(int count, long seed) {
+        StorageParser parser = new StorageParser();
+        List<Task> tasks = new ArrayList<>(count);
+        try {
+            for (String line : lines(count, seed)) {
+                tasks.add(parser.parseStorageLine(line));
+            }
+        } catch (ParseStorageLineFailureException e) {
+            throw new IllegalStateException("Synthetic line could not be parsed", e);
+        }
+        return tasks;
+    }
+
+    /**
+     * Deletes a benchmark's scratch directory and the files in it.
+     * @param directory Directory made by {@link Files#createTempDirectory}.
+     * @throws IOException If a file cannot be deleted.
+     */
+    public static void deleteDirectory(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+}
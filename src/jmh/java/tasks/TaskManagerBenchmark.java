@@ -0,0 +1,126 @@
+package tasks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import parser.StorageParser;
+import storage.Storage;
+
+/**
+ * Measures TaskManager's in-memory hot paths: searching, sorting, deleting from the front and listing.
+ * The manager is kept in a batch so that no benchmark includes disk writes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TaskManagerBenchmark {
+    @Param({"1000", "100000"})
+    private int taskCount;
+
+    private List<Task> tasks;
+    private Path directory;
+    private TaskManager manager;
+
+    /**
+     * Fills a manager backed by a scratch save file with the synthetic tasks.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.tasks = SyntheticTasks.generate(this.taskCount, SyntheticTasks.SEED);
+        this.directory = Files.createTempDirectory("dooki-bench");
+        this.manager = newManager(this.directory, this.tasks);
+    }
+
+    /**
+     * Deletes the scratch save file.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        SyntheticTasks.deleteDirectory(this.directory);
+    }
+
+    static TaskManager newManager(Path directory, List<Task> tasks) {
+        Storage storage = new Storage(new StorageParser(), directory.resolve("dooki.txt"), false,
+                Storage.DEFAULT_COMPACTION_THRESHOLD_BYTES);
+        TaskManager manager = new TaskManager(storage);
+        manager.beginBatch();
+        for (Task task : tasks) {
+            manager.add(task);
+        }
+        return manager;
+    }
+
+    /**
+     * Substring search for a word found in about a tenth of the tasks.
+     */
+    @Benchmark
+    public List<Task> find() {
+        return this.manager.find(SyntheticTasks.COMMON_WORD);
+    }
+
+    /**
+     * Whole-word search for the same word.
+     */
+    @Benchmark
+    public List<Task> findWord() {
+        return this.manager.findWord(SyntheticTasks.COMMON_WORD);
+    }
+
+    /**
+     * Deletes the first task, then appends it again so the list keeps its size.
+     */
+    @Benchmark
+    public Task deleteFromFront() {
+        Task removed = this.manager.delete(0);
+        this.manager.add(removed);
+        return removed;
+    }
+
+    /**
+     * Renders the whole list.
+     */
+    @Benchmark
+    public String listAll() {
+        return this.manager.toString();
+    }
+
+    /**
+     * Sorting is only measured on a list that is not sorted yet, so every invocation gets a fresh manager.
+     */
+    @State(Scope.Thread)
+    public static class UnsortedManager {
+        private TaskManager manager;
+
+        /**
+         * Rebuilds the manager in the synthetic (unsorted) order.
+         */
+        @Setup(Level.Invocation)
+        public void setUp(TaskManagerBenchmark benchmark) {
+            this.manager = newManager(benchmark.directory, benchmark.tasks);
+        }
+    }
+
+    /**
+     * Sorts an unsorted list by date, once per invocation.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    public TaskManager sortByDate(UnsortedManager unsorted) {
+        unsorted.manager.sortByDate();
+        return unsorted.manager;
+    }
+}
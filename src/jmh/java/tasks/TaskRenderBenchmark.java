@@ -0,0 +1,79 @@
+package tasks;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares listing 100k tasks with memoized display strings against rendering every task afresh,
+ * which is what every {@code list} did before.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TaskRenderBenchmark {
+    @Param({"100000"})
+    private int taskCount;
+
+    private final List<Task> tasks = new ArrayList<>();
+
+    /**
+     * Builds an even mix of todos, deadlines and events, and renders each once to fill the cache.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        LocalDate start = LocalDate.parse("2024-01-01");
+        for (int i = 0; i < this.taskCount; i++) {
+            LocalDate date = start.plusDays(i % 365);
+            switch (i % 3) {
+            case 0:
+                this.tasks.add(new TodoTask("todo " + i));
+                break;
+            case 1:
+                this.tasks.add(new DeadlineTask("deadline " + i, date));
+                break;
+            default:
+                this.tasks.add(new EventTask("event " + i, date, date.plusDays(2)));
+                break;
+            }
+            this.tasks.get(i).toString();
+        }
+    }
+
+    /**
+     * Builds a listing from the cached display strings.
+     */
+    @Benchmark
+    public void listCached(Blackhole blackhole) {
+        blackhole.consume(this.list(true));
+    }
+
+    /**
+     * Builds the same listing, rendering every task from scratch.
+     */
+    @Benchmark
+    public void listUncached(Blackhole blackhole) {
+        blackhole.consume(this.list(false));
+    }
+
+    private String list(boolean isCached) {
+        StringBuilder listing = new StringBuilder(this.taskCount * 48);
+        for (int i = 0; i < this.tasks.size(); i++) {
+            Task task = this.tasks.get(i);
+            listing.append(i + 1).append('.').append(isCached ? task.toString() : task.render()).append('\n');
+        }
+        return listing.toString();
+    }
+}
@@ -0,0 +1,28 @@
+package display;
+
+/**
+ * One message in the chat transcript: who sent it, and what it says.
+ */
+public class ChatMessage {
+    private final String text;
+    private final boolean isUser;
+
+    /**
+     * Constructor for a chat message.
+     * @param text the message text.
+     * @param isUser whether the user (rather than Dooki) sent it.
+     */
+    public ChatMessage(String text, boolean isUser) {
+        assert text != null : "Message text must not be null";
+        this.text = text;
+        this.isUser = isUser;
+    }
+
+    public String getText() {
+        return this.text;
+    }
+
+    public boolean isUser() {
+        return this.isUser;
+    }
+}
@@ -0,0 +1,88 @@
+package display;
+
+import java.io.Closeable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import dooki.DookiBot;
+import server.SessionExecutor;
+
+/**
+ * Runs the GUI's commands on a background thread, so that slow commands (or slow disks) never freeze the window.
+ * Commands run one at a time in submission order, and their responses are handed to the listener on the
+ * UI executor in the same order. Responses that arrive together are delivered in one UI task, a bounded
+ * number at a time, so a burst of commands costs a few short UI tasks rather than one per command.
+ */
+public class CommandDispatcher implements Closeable {
+    private static final int MAX_RESPONSES_PER_PULSE = 32;
+
+    private final Executor uiExecutor;
+    private final SessionExecutor.ResponseListener listener;
+    private final SessionExecutor sessionExecutor;
+    private final SessionExecutor.Session session;
+    private final ConcurrentLinkedQueue<Response> responses = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean isPulseScheduled = new AtomicBoolean();
+
+    private static class Response {
+        private final String text;
+        private final boolean isExit;
+
+        Response(String text, boolean isExit) {
+            this.text = text;
+            this.isExit = isExit;
+        }
+    }
+
+    /**
+     * Creates a dispatcher with its own session of the bot.
+     * @param dookiBot Bot to run commands on.
+     * @param uiExecutor Runs tasks on the UI thread, e.g. {@code Platform::runLater}.
+     * @param listener Receives each response on the UI thread, in submission order.
+     */
+    public CommandDispatcher(DookiBot dookiBot, Executor uiExecutor, SessionExecutor.ResponseListener listener) {
+        assert dookiBot != null && uiExecutor != null && listener != null : "Dispatcher arguments must not be null";
+        this.uiExecutor = uiExecutor;
+        this.listener = listener;
+        this.sessionExecutor = new SessionExecutor(dookiBot);
+        this.session = this.sessionExecutor.open(this::onResponse);
+    }
+
+    /**
+     * Queues a command and returns immediately.
+     * @param command A single command line.
+     */
+    public void submit(String command) {
+        this.session.submit(command);
+    }
+
+    /**
+     * Stops the background thread once the commands already queued have run, and waits for it to stop.
+     */
+    @Override
+    public void close() {
+        this.sessionExecutor.close();
+    }
+
+    /**
+     * Called on the background thread; schedules a UI pulse unless one is already pending.
+     */
+    private void onResponse(String text, boolean isExit) {
+        this.responses.add(new Response(text, isExit));
+        if (this.isPulseScheduled.compareAndSet(false, true)) {
+            this.uiExecutor.execute(this::deliverResponses);
+        }
+    }
+
+    private void deliverResponses() {
+        // Cleared before draining, so a response queued while draining schedules the next pulse.
+        this.isPulseScheduled.set(false);
+        Response response;
+        for (int i = 0; i < MAX_RESPONSES_PER_PULSE && (response = this.responses.poll()) != null; i++) {
+            this.listener.onResponse(response.text, response.isExit);
+        }
+        if (!this.responses.isEmpty() && this.isPulseScheduled.compareAndSet(false, true)) {
+            this.uiExecutor.execute(this::deliverResponses);
+        }
+    }
+}
@@ -11,21 +11,20 @@ import javafx.scene.paint.Color;
 
 /**
  * A single message bubble in the chat window.
+ * Bubbles can be reused for another message, so a virtualized transcript only needs one per visible row.
  */
 public class DialogBox extends HBox {
-    private DialogBox(String message, boolean isUser) {
-        Label label = new Label(message);
-        label.setWrapText(true);
-        label.setPadding(new Insets(10));
-        label.setBackground(new Background(new BackgroundFill(
-                isUser ? Color.LIGHTBLUE : Color.LIGHTGRAY,
-                new CornerRadii(8),
-                Insets.EMPTY
-        )));
+    private static final Background USER_BACKGROUND = bubble(Color.LIGHTBLUE);
+    private static final Background DOOKI_BACKGROUND = bubble(Color.LIGHTGRAY);
 
-        this.setAlignment(isUser ? Pos.TOP_RIGHT : Pos.TOP_LEFT);
+    private final Label label = new Label();
+
+    private DialogBox(String message, boolean isUser) {
+        this.label.setWrapText(true);
+        this.label.setPadding(new Insets(10));
         this.setSpacing(10);
-        this.getChildren().add(label);
+        this.getChildren().add(this.label);
+        this.show(message, isUser);
     }
 
     /**
@@ -47,4 +46,20 @@ public class DialogBox extends HBox {
     public static DialogBox getDookiDialog(String message) {
         return new DialogBox(message, false);
     }
+
+    /**
+     * Shows another message in this bubble.
+     *
+     * @param message text to display.
+     * @param isUser whether the user sent the message.
+     */
+    public void show(String message, boolean isUser) {
+        this.label.setText(message);
+        this.label.setBackground(isUser ? USER_BACKGROUND : DOOKI_BACKGROUND);
+        this.setAlignment(isUser ? Pos.TOP_RIGHT : Pos.TOP_LEFT);
+    }
+
+    private static Background bubble(Color color) {
+        return new Background(new BackgroundFill(color, new CornerRadii(8), Insets.EMPTY));
+    }
 }
@@ -0,0 +1,43 @@
+package display;
+
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+
+/**
+ * List cell that shows a chat message in a {@link DialogBox}. The list view only creates enough cells
+ * to fill its viewport and reuses them while scrolling, so each bubble is reused as well.
+ */
+public class DialogBoxCell extends ListCell<ChatMessage> {
+    // Room for the cell's padding and the list's vertical scroll bar.
+    private static final double SIDE_MARGIN = 30;
+
+    private final DialogBox dialogBox = DialogBox.getDookiDialog("");
+    private final Runnable onFirstRowShown;
+
+    /**
+     * Constructor for a transcript cell.
+     * @param listView the transcript's list view.
+     * @param onFirstRowShown called when the cell is used for the transcript's first row, i.e. the user
+     *     has scrolled to the top.
+     */
+    public DialogBoxCell(ListView<ChatMessage> listView, Runnable onFirstRowShown) {
+        this.onFirstRowShown = onFirstRowShown;
+        // Let the list's width, not the message's length, decide where the bubble's text wraps.
+        this.setPrefWidth(0);
+        this.dialogBox.prefWidthProperty().bind(listView.widthProperty().subtract(SIDE_MARGIN));
+    }
+
+    @Override
+    protected void updateItem(ChatMessage message, boolean isEmpty) {
+        super.updateItem(message, isEmpty);
+        if (isEmpty || message == null) {
+            this.setGraphic(null);
+            return;
+        }
+        this.dialogBox.show(message.getText(), message.isUser());
+        this.setGraphic(this.dialogBox);
+        if (this.getIndex() == 0) {
+            this.onFirstRowShown.run();
+        }
+    }
+}
@@ -1,22 +1,32 @@
 package display;
 
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+
 import dooki.DookiBot;
 import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ListView;
 import javafx.scene.control.TextField;
-import javafx.scene.layout.VBox;
 
 /**
  * Controller for the main chat window.
+ * The transcript is a virtualized list: only the visible messages have bubbles, and only the most
+ * recent messages are kept in memory. Older ones are read back from a history file on scroll-back.
+ * Commands run in the background; each shows a placeholder bubble until its response arrives.
  */
 public class MainWindow {
-    @FXML
-    private ScrollPane scrollPane;
+    // Override with -Ddooki.transcript.maxMessages=N.
+    private static final int MAX_RETAINED_MESSAGES = Integer.getInteger("dooki.transcript.maxMessages", 500);
+    private static final int SCROLL_BACK_PAGE = 50;
+    private static final Path HISTORY_PATH = Path.of("data", "dooki.history");
+    private static final String PENDING_TEXT = "\u2026";
 
     @FXML
-    private VBox dialogContainer;
+    private ListView<ChatMessage> transcriptView;
 
     @FXML
     private TextField userInput;
@@ -24,11 +34,19 @@ public class MainWindow {
     @FXML
     private Button sendButton;
 
-    private DookiBot dooki;
+    private final ObservableList<ChatMessage> messages = FXCollections.observableArrayList();
+    // Placeholders of the commands still running, oldest first; responses arrive in the same order.
+    private final ArrayDeque<ChatMessage> pendingMessages = new ArrayDeque<>();
+    private Transcript transcript;
+    private boolean isLoadingOlder = false;
+    private CommandDispatcher dispatcher;
 
     @FXML
     private void initialize() {
-        this.scrollPane.vvalueProperty().bind(this.dialogContainer.heightProperty());
+        this.transcript = new Transcript(this.messages, HISTORY_PATH, MAX_RETAINED_MESSAGES);
+        this.transcriptView.setItems(this.messages);
+        this.transcriptView.setFocusTraversable(false);
+        this.transcriptView.setCellFactory(view -> new DialogBoxCell(view, this::loadOlderLater));
     }
 
     /**
@@ -37,8 +55,21 @@ public class MainWindow {
      * @param dookiBot chatbot instance.
      */
     public void setDooki(DookiBot dookiBot) {
-        this.dooki = dookiBot;
-        this.dialogContainer.getChildren().add(DialogBox.getDookiDialog(this.dooki.getWelcomeMessage()));
+        this.dispatcher = new CommandDispatcher(dookiBot, Platform::runLater, this::showResponse);
+        this.show(new ChatMessage(dookiBot.getWelcomeMessage(), false));
+    }
+
+    /**
+     * Stops running commands in the background once those already entered have run,
+     * and finishes writing the transcript history.
+     */
+    public void shutdown() {
+        if (this.dispatcher != null) {
+            this.dispatcher.close();
+        }
+        if (this.transcript != null) {
+            this.transcript.close();
+        }
     }
 
     /**
@@ -50,17 +81,48 @@ public class MainWindow {
         if (input == null || input.isBlank()) {
             return;
         }
-        String response = this.dooki.getResponse(input);
-        this.dialogContainer.getChildren().addAll(
-                DialogBox.getUserDialog(input),
-                DialogBox.getDookiDialog(response)
-        );
+        ChatMessage pending = new ChatMessage(PENDING_TEXT, false);
+        this.show(new ChatMessage(input, true));
+        this.transcript.appendPending(pending);
+        this.transcriptView.scrollTo(this.messages.size() - 1);
+        this.pendingMessages.add(pending);
         this.userInput.clear();
+        this.dispatcher.submit(input);
+    }
+
+    /**
+     * Puts a command's response in place of its placeholder; called on the FX thread.
+     */
+    private void showResponse(String response, boolean isExit) {
+        ChatMessage pending = this.pendingMessages.poll();
+        assert pending != null : "Every response should have a placeholder";
+        this.transcript.replace(pending, new ChatMessage(response, false));
+        this.transcriptView.scrollTo(this.messages.size() - 1);
 
-        if (this.dooki.shouldExit()) {
+        if (isExit) {
             this.sendButton.setDisable(true);
             this.userInput.setDisable(true);
             Platform.exit();
         }
     }
+
+    private void show(ChatMessage message) {
+        this.transcript.append(message);
+        this.transcriptView.scrollTo(this.messages.size() - 1);
+    }
+
+    /**
+     * Loads a page of older messages once the first row has been laid out, keeping the same message on top.
+     */
+    private void loadOlderLater() {
+        if (this.isLoadingOlder || !this.transcript.hasOlder()) {
+            return;
+        }
+        this.isLoadingOlder = true;
+        Platform.runLater(() -> {
+            int loaded = this.transcript.loadOlder(SCROLL_BACK_PAGE);
+            this.transcriptView.scrollTo(loaded);
+            this.isLoadingOlder = false;
+        });
+    }
 }
@@ -0,0 +1,297 @@
+package display;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the chat transcript's most recent messages in a list, within a fixed cap.
+ * Older messages are spilled to a history file, and read back from it a page at a time when the user
+ * scrolls back. The history file only covers the current session, and is cleared when it starts.
+ * The window list is typically the backing list of a virtualized view; only this class should change it.
+ * Placeholders of pending responses are pinned: neither they nor anything after them is spilled until
+ * they are replaced, so a response always lands in its placeholder's place.
+ * Spilled messages are written to the file by a background thread, batching whatever piled up meanwhile,
+ * so appending never blocks the calling (UI) thread on disk; scrolling back waits for those writes.
+ * Not thread-safe: call it from one thread, such as the FX thread.
+ */
+public class Transcript {
+    private static final char USER_MARKER = 'U';
+    private static final char DOOKI_MARKER = 'D';
+    private static final long CLOSE_TIMEOUT_SECONDS = 5;
+
+    private final List<ChatMessage> window;
+    private final Path historyPath;
+    private final int maxRetained;
+    private final Set<ChatMessage> pinned = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final ExecutorService historyWriter = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "dooki-history-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Spilled lines not yet written; shared with the writer thread, so guarded by its own lock.
+    private final StringBuilder unwritten = new StringBuilder();
+    private volatile IOException writeFailure;
+    // Byte offset of each spilled message in the history file, plus the end of the file.
+    private long[] historyOffsets = new long[] {0};
+    private int spilledCount = 0;
+    // Index, over the whole session, of the message at the top of the window.
+    private int windowStart = 0;
+
+    /**
+     * Creates a transcript and clears any history left over from an earlier session.
+     * @param window list that holds the retained messages, oldest first; it is cleared.
+     * @param historyPath file that older messages are spilled to.
+     * @param maxRetained how many messages to keep in the window once new messages arrive.
+     */
+    public Transcript(List<ChatMessage> window, Path historyPath, int maxRetained) {
+        assert window != null && historyPath != null : "Window and history path must not be null";
+        assert maxRetained > 0 : "Transcript must retain at least one message";
+        this.window = window;
+        this.historyPath = historyPath;
+        this.maxRetained = maxRetained;
+        this.window.clear();
+        try {
+            Files.deleteIfExists(historyPath);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Adds a message at the bottom, spilling the oldest messages to the history file to stay within the cap.
+     * Messages loaded by scrolling back are dropped again here, as they are already in the file.
+     * Only messages before the oldest pinned placeholder are spilled, so the window may exceed the cap
+     * while responses are pending.
+     * @param message the new message.
+     */
+    public void append(ChatMessage message) {
+        this.window.add(message);
+        trim();
+    }
+
+    /**
+     * Adds a placeholder at the bottom and pins it in the window until it is replaced.
+     * @param placeholder the placeholder message.
+     */
+    public void appendPending(ChatMessage placeholder) {
+        this.pinned.add(placeholder);
+        append(placeholder);
+    }
+
+    /**
+     * Swaps a message still in the window, such as a placeholder, for another one, unpinning it.
+     * If the message has already been spilled, the replacement is added at the bottom instead.
+     * @param message the message to replace, compared by identity.
+     * @param replacement the message to show in its place.
+     */
+    public void replace(ChatMessage message, ChatMessage replacement) {
+        boolean wasPinned = this.pinned.remove(message);
+        for (int i = this.window.size() - 1; i >= 0; i--) {
+            if (this.window.get(i) == message) {
+                this.window.set(i, replacement);
+                if (wasPinned) {
+                    // Messages held back behind the placeholder may be spilled now.
+                    trim();
+                }
+                return;
+            }
+        }
+        append(replacement);
+    }
+
+    /**
+     * Whether messages older than the window's first one are in the history file.
+     * @return true if scrolling back can load more.
+     */
+    public boolean hasOlder() {
+        return this.windowStart > 0;
+    }
+
+    /**
+     * Reads up to {@code count} messages preceding the window back from the history file, and
+     * puts them at the top of the window.
+     * @param count the most messages to load.
+     * @return the number of messages loaded.
+     */
+    public int loadOlder(int count) {
+        int from = Math.max(0, this.windowStart - count);
+        if (from == this.windowStart) {
+            return 0;
+        }
+        List<ChatMessage> older = readHistory(from, this.windowStart);
+        this.window.addAll(0, older);
+        this.windowStart = from;
+        return older.size();
+    }
+
+    public int getSpilledCount() {
+        return this.spilledCount;
+    }
+
+    /**
+     * Waits for spilled messages to be written, then stops the writer thread.
+     */
+    public void close() {
+        this.historyWriter.shutdown();
+        try {
+            this.historyWriter.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Spills and drops the oldest messages beyond the cap, stopping at the oldest pinned placeholder.
+     */
+    private void trim() {
+        int excess = this.window.size() - this.maxRetained;
+        for (int i = 0; i < excess; i++) {
+            if (this.pinned.contains(this.window.get(i))) {
+                excess = i;
+                break;
+            }
+        }
+        if (excess <= 0) {
+            return;
+        }
+        int unspilled = this.windowStart + excess - this.spilledCount;
+        if (unspilled > 0) {
+            spill(this.window.subList(excess - unspilled, excess));
+        }
+        this.window.subList(0, excess).clear();
+        this.windowStart += excess;
+    }
+
+    private void spill(List<ChatMessage> messages) {
+        StringBuilder lines = new StringBuilder();
+        long[] lengths = new long[messages.size()];
+        for (int i = 0; i < messages.size(); i++) {
+            String line = encode(messages.get(i));
+            lengths[i] = line.getBytes(StandardCharsets.UTF_8).length;
+            lines.append(line);
+        }
+        synchronized (this.unwritten) {
+            boolean isWriteQueued = this.unwritten.length() > 0;
+            this.unwritten.append(lines);
+            if (!isWriteQueued) {
+                this.historyWriter.execute(this::writeUnwritten);
+            }
+        }
+        int needed = this.spilledCount + messages.size() + 1;
+        if (needed > this.historyOffsets.length) {
+            this.historyOffsets = Arrays.copyOf(this.historyOffsets, Math.max(needed, this.historyOffsets.length * 2));
+        }
+        for (long length : lengths) {
+            this.historyOffsets[this.spilledCount + 1] = this.historyOffsets[this.spilledCount] + length;
+            this.spilledCount++;
+        }
+    }
+
+    /**
+     * Appends every spilled line queued so far to the history file; runs on the writer thread.
+     */
+    private void writeUnwritten() {
+        String lines;
+        synchronized (this.unwritten) {
+            lines = this.unwritten.toString();
+            this.unwritten.setLength(0);
+        }
+        if (this.writeFailure != null) {
+            return;
+        }
+        try {
+            Files.writeString(this.historyPath, lines, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            this.writeFailure = e;
+        }
+    }
+
+    /**
+     * Blocks until every spilled message is in the history file.
+     */
+    private void awaitWrites() {
+        try {
+            this.historyWriter.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        if (this.writeFailure != null) {
+            throw new UncheckedIOException(this.writeFailure);
+        }
+    }
+
+    /**
+     * Reads messages {@code from} (inclusive) to {@code to} (exclusive) of the session with one positioned read.
+     */
+    private List<ChatMessage> readHistory(int from, int to) {
+        assert to <= this.spilledCount : "Only spilled messages can be read back";
+        awaitWrites();
+        long start = this.historyOffsets[from];
+        ByteBuffer bytes = ByteBuffer.allocate((int) (this.historyOffsets[to] - start));
+        try (FileChannel channel = FileChannel.open(this.historyPath, StandardOpenOption.READ)) {
+            while (bytes.hasRemaining() && channel.read(bytes, start + bytes.position()) >= 0) {
+                // Keep reading until the range is filled.
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        String text = new String(bytes.array(), 0, bytes.position(), StandardCharsets.UTF_8);
+        List<ChatMessage> messages = new ArrayList<>(to - from);
+        int lineStart = 0;
+        for (int lineEnd = text.indexOf('\n'); lineEnd >= 0; lineEnd = text.indexOf('\n', lineStart)) {
+            messages.add(decode(text.substring(lineStart, lineEnd)));
+            lineStart = lineEnd + 1;
+        }
+        return messages;
+    }
+
+    /**
+     * Writes a message as one line: a sender marker, then the text with backslashes and newlines escaped.
+     */
+    private static String encode(ChatMessage message) {
+        StringBuilder line = new StringBuilder(message.getText().length() + 2);
+        line.append(message.isUser() ? USER_MARKER : DOOKI_MARKER);
+        for (int i = 0; i < message.getText().length(); i++) {
+            char c = message.getText().charAt(i);
+            if (c == '\\') {
+                line.append("\\\\");
+            } else if (c == '\n') {
+                line.append("\\n");
+            } else {
+                line.append(c);
+            }
+        }
+        return line.append('\n').toString();
+    }
+
+    private static ChatMessage decode(String line) {
+        StringBuilder text = new StringBuilder(line.length());
+        for (int i = 1; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\\' && i + 1 < line.length()) {
+                c = line.charAt(++i) == 'n' ? '\n' : '\\';
+            }
+            text.append(c);
+        }
+        return new ChatMessage(text.toString(), line.charAt(0) == USER_MARKER);
+    }
+}
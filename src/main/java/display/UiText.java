@@ -1,5 +1,7 @@
 package display;
 
+import java.io.IOException;
+
 /**
  * Minimal text-only renderer for CLI output. Responsible only for formatting lines; all message content
  * lives in the backend (e.g., {@code DookiBot}).
@@ -9,6 +11,18 @@ public class UiText {
     // Adapted output format from https://nus-cs2103-ay2526-s2.github.io/website/schedule/week2/project.html
     private static final String LONG_LINE = "_".repeat(30);
 
+    /**
+     * A message that writes itself to a sink, piece by piece.
+     */
+    public interface StreamedMessage {
+        /**
+         * Writes the message.
+         * @param out sink for the message.
+         * @throws IOException If the sink fails.
+         */
+        void writeTo(Appendable out) throws IOException;
+    }
+
     /**
      * Constructor for Dooki's text renderer.
      */
@@ -25,6 +39,18 @@ public class UiText {
         this.showLine();
     }
 
+    /**
+     * Prints a message wrapped with separator lines as it is written, without holding all of it in memory.
+     * @param message message to print.
+     * @throws IOException If the message cannot be written.
+     */
+    public void showStreamed(StreamedMessage message) throws IOException {
+        this.showLine();
+        message.writeTo(System.out);
+        System.out.println();
+        this.showLine();
+    }
+
     private void showLine() {
         System.out.println(LONG_LINE);
     }
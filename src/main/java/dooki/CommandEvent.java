@@ -0,0 +1,31 @@
+package dooki;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for one command run by {@link DookiBot}, from scanning its input to its response.
+ */
+@Name(CommandEvent.NAME)
+@Label("Command")
+@Category({"Dooki", "Commands"})
+@Description("A command run by Dooki")
+@StackTrace(false)
+class CommandEvent extends Event {
+    static final String NAME = "dooki.Command";
+    static final String OK = "ok";
+    static final String ERROR = "error";
+    static final String FAILED = "failed";
+
+    @Label("Command")
+    @Description("Command word, or (unknown) for input that is not a command")
+    String command;
+
+    @Label("Outcome")
+    @Description("ok, error for a response reporting a failed command, or failed if the command threw")
+    String outcome;
+}
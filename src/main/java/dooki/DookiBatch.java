@@ -0,0 +1,132 @@
+package dooki;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Runs every command in a file as one transaction: changes are applied in memory and saved once at the end.
+ * Only failed commands are reported, followed by a summary.
+ */
+public class DookiBatch {
+    private static final int OUTPUT_BUFFER_CHARS = 64 * 1024;
+
+    private final DookiBot dookiBot;
+
+    /**
+     * Totals for one batch run.
+     */
+    public static class Summary {
+        private final int commandCount;
+        private final int errorCount;
+        private final long applyNanos;
+        private final long saveNanos;
+
+        Summary(int commandCount, int errorCount, long applyNanos, long saveNanos) {
+            this.commandCount = commandCount;
+            this.errorCount = errorCount;
+            this.applyNanos = applyNanos;
+            this.saveNanos = saveNanos;
+        }
+
+        public int getCommandCount() {
+            return this.commandCount;
+        }
+
+        public int getErrorCount() {
+            return this.errorCount;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Ran %d command(s): %d succeeded, %d failed. Applied in %d ms, saved in %d ms.",
+                    this.commandCount, this.commandCount - this.errorCount, this.errorCount,
+                    this.applyNanos / 1_000_000, this.saveNanos / 1_000_000);
+        }
+    }
+
+    /**
+     * Constructor for Dooki's batch runner.
+     * @param dookiBot Bot to run the commands on.
+     */
+    public DookiBatch(DookiBot dookiBot) {
+        assert dookiBot != null : "DookiBot must not be null";
+        this.dookiBot = dookiBot;
+    }
+
+    /**
+     * Runs a batch file, reporting to standard output, then shuts the bot down.
+     * @param input The batch file, one command per line.
+     */
+    public void start(Path input) {
+        Writer output = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8),
+                OUTPUT_BUFFER_CHARS);
+        try {
+            Summary summary = run(input, output);
+            output.write(summary.toString());
+            output.write(System.lineSeparator());
+            output.flush();
+        } catch (IOException e) {
+            System.out.println("Could not run batch file " + input + ": " + e.getMessage());
+        } finally {
+            this.dookiBot.shutdown();
+        }
+    }
+
+    /**
+     * Runs each non-blank line of the input as a command, stopping early at {@code bye}.
+     * Changes are saved once, after the last command. If reading or reporting fails partway, the commands
+     * applied so far are saved all the same, so the bot never stays in batch mode.
+     * @param input The batch file, one command per line.
+     * @param output Receives one report per failed command.
+     * @return the run's totals.
+     * @throws IOException If the input cannot be read or the output cannot be written; its message says
+     *     how many commands were applied and saved before that.
+     */
+    public Summary run(Path input, Writer output) throws IOException {
+        int commandCount = 0;
+        int errorCount = 0;
+        long start = System.nanoTime();
+        long applied;
+        IOException failure = null;
+        this.dookiBot.beginBatch();
+        try {
+            try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+                String line;
+                int lineNumber = 0;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    commandCount++;
+                    String response = this.dookiBot.getResponse(line);
+                    if (DookiBot.isError(response)) {
+                        errorCount++;
+                        output.write("Line " + lineNumber + ": " + line.strip() + System.lineSeparator()
+                                + "    " + response + System.lineSeparator());
+                    }
+                    if (this.dookiBot.shouldExit()) {
+                        break;
+                    }
+                }
+            } catch (IOException e) {
+                failure = e;
+            }
+        } finally {
+            applied = System.nanoTime();
+            this.dookiBot.commitBatch();
+        }
+        if (failure != null) {
+            // Reported only once the commit above has gone through.
+            throw new IOException(failure.getMessage() + "\nStopped after " + commandCount
+                    + " command(s); the changes they made were saved.", failure);
+        }
+        return new Summary(commandCount, errorCount, applied - start, System.nanoTime() - applied);
+    }
+}
@@ -1,47 +1,149 @@
 package dooki;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import exceptions.CommandIsMissingArgumentException;
+import exceptions.InvalidTaskIndexException;
 import exceptions.NoTasksFoundException;
 import exceptions.TaskDescriptionIsEmptyException;
 import exceptions.TaskIsMissingArgumentException;
 import exceptions.UnsupportedCommandException;
+import parser.AddTaskCommand;
+import parser.Command;
 import parser.CommandParser;
 import parser.StorageParser;
+import stats.Stats;
+import storage.AsyncStorageWriter;
 import storage.Storage;
-import tasks.DeadlineTask;
-import tasks.EventTask;
 import tasks.Task;
 import tasks.TaskManager;
-import tasks.TodoTask;
 
 /**
  * Encapsulates Dooki's command handling for both CLI and GUI frontends.
+ * The task list is shared by every {@link DookiSession}; single-user frontends use the default session.
+ * Each command word maps to a handler in a registry built once per bot; input is scanned once into a
+ * {@link Command} and the handler reads its typed arguments from that.
  */
 public class DookiBot {
+    /**
+     * Handles one command word.
+     */
+    private interface CommandHandler {
+        String handle(DookiSession session, Command command)
+                throws TaskDescriptionIsEmptyException, TaskIsMissingArgumentException;
+    }
+
+    // Set to "false" (or start the launcher with --no-journal) to rewrite the whole save file on every change.
+    public static final String JOURNAL_PROPERTY = "dooki.journal";
+    // Set to "false" (or start the launcher with --immediate-writes) to save each change before replying.
+    public static final String BACKGROUND_WRITES_PROPERTY = "dooki.backgroundWrites";
+    // Set to "true" (or start the launcher with --trigram-index) to index substring searches from the start.
+    public static final String TRIGRAM_INDEX_PROPERTY = "dooki.trigramIndex";
+
     private static final String ERROR_PREFIX = "[ERROR] ";
     private static final String GOODBYE_MESSAGE = "Bye. Hope to see you again soon!";
+    private static final DateTimeFormatter DISPLAY_DATE = DateTimeFormatter.ofPattern("MMM dd yyyy");
+    private static final String WHOLE_WORD_FLAG = "-w ";
+    private static final String PREFIX_WILDCARD = "*";
     private static final String WELCOME_MESSAGE = "Hello! I'm Dooki\nWhat can I do for you?";
+    // Stats and flight recorder key for input that is not a command, so that arbitrary input cannot add histograms.
+    private static final String UNKNOWN_COMMAND = "(unknown)";
 
     private final TaskManager taskManager;
     private final CommandParser commandParser;
-    private boolean isExit;
+    private final DookiSession defaultSession = new DookiSession();
+    private final Map<String, CommandHandler> handlers;
 
     /**
      * Creates a Dooki instance backed by on-disk storage.
+     * Changes are persisted in the background so that commands do not wait on disk writes, unless
+     * {@value #BACKGROUND_WRITES_PROPERTY} is "false".
      */
     public DookiBot() {
-        Storage storage = new Storage(new StorageParser());
+        this(isEnabled(BACKGROUND_WRITES_PROPERTY));
+    }
+
+    /**
+     * Creates a Dooki instance backed by on-disk storage.
+     * @param isBackgroundPersisted Whether changes are written by a background writer rather than
+     *     before each command returns.
+     */
+    public DookiBot(boolean isBackgroundPersisted) {
+        this(Paths.get("data", "dooki.txt"), isEnabled(JOURNAL_PROPERTY), isBackgroundPersisted);
+    }
+
+    /**
+     * Creates a Dooki instance backed by the given save file, e.g. for benchmarks that must not touch
+     * the user's own tasks.
+     * @param storagePath Path of the save file; its change journal is kept next to it.
+     * @param isBackgroundPersisted Whether changes are written by a background writer rather than
+     *     before each command returns.
+     */
+    public DookiBot(Path storagePath, boolean isBackgroundPersisted) {
+        this(storagePath, true, isBackgroundPersisted);
+    }
+
+    /**
+     * Creates a Dooki instance backed by the given save file, in the given storage mode.
+     * @param storagePath Path of the save file; its change journal is kept next to it.
+     * @param isJournaled Whether changes are appended to a change journal rather than rewriting the save file.
+     * @param isBackgroundPersisted Whether changes are written by a background writer rather than
+     *     before each command returns.
+     */
+    public DookiBot(Path storagePath, boolean isJournaled, boolean isBackgroundPersisted) {
+        Storage storage = new Storage(new StorageParser(), storagePath, isJournaled,
+                Storage.DEFAULT_COMPACTION_THRESHOLD_BYTES);
         assert storage != null : "Storage should be initialized";
-        this.taskManager = new TaskManager(storage);
+        this.taskManager = isBackgroundPersisted
+                ? new TaskManager(storage, AsyncStorageWriter.DEFAULT_WINDOW_MILLIS,
+                        AsyncStorageWriter.DEFAULT_MAX_PENDING)
+                : new TaskManager(storage);
         assert this.taskManager != null : "TaskManager should be initialized";
+        if (Boolean.getBoolean(TRIGRAM_INDEX_PROPERTY)) {
+            this.taskManager.setTrigramIndexEnabled(true);
+        }
         this.commandParser = new CommandParser(this.taskManager);
         assert this.commandParser != null : "CommandParser should be initialized";
-        this.isExit = false;
+        this.handlers = this.registerHandlers();
+        Stats.registerMBean();
+    }
+
+    /**
+     * Reads an on-by-default setting: it is only off when the system property is "false".
+     */
+    private static boolean isEnabled(String property) {
+        return !"false".equalsIgnoreCase(System.getProperty(property));
+    }
+
+    private Map<String, CommandHandler> registerHandlers() {
+        HashMap<String, CommandHandler> handlers = new HashMap<>();
+        handlers.put("bye", (session, command) -> this.handleBye(session));
+        handlers.put("list", (session, command) -> this.formatTaskList(command));
+        handlers.put("sort", (session, command) -> this.handleSort(command.getArgument()));
+        handlers.put("delete", (session, command) -> this.handleDelete(command));
+        handlers.put("mark", (session, command) -> this.handleMarking(command, true));
+        handlers.put("unmark", (session, command) -> this.handleMarking(command, false));
+        handlers.put("todo", (session, command) -> this.handleAdd(this.commandParser.parseTodoTask(command)));
+        handlers.put("deadline", (session, command) ->
+                this.handleAdd(this.commandParser.parseDeadlineTask(command)));
+        handlers.put("event", (session, command) -> this.handleAdd(this.commandParser.parseEventTask(command)));
+        handlers.put("find", (session, command) -> this.handleFind(command));
+        handlers.put("due", (session, command) -> this.handleDue(command));
+        handlers.put("between", (session, command) -> this.handleBetween(command));
+        handlers.put("index", (session, command) -> this.handleIndex(command.getArgument()));
+        handlers.put("stats", (session, command) -> this.handleStats(command.getArgument()));
+        handlers.put("summary", (session, command) -> this.formatSummary());
+        return Collections.unmodifiableMap(handlers);
     }
 
     /**
@@ -54,54 +156,159 @@ public class DookiBot {
     }
 
     /**
-     * Whether the last command requested application exit.
+     * Whether the last command in the default session requested application exit.
      *
      * @return true if the user asked to exit.
      */
     public boolean shouldExit() {
-        return this.isExit;
+        return this.defaultSession.shouldExit();
+    }
+
+    /**
+     * Starts a new conversation over this bot's task list.
+     *
+     * @return a session to pass to {@link #getResponse(DookiSession, String)}.
+     */
+    public DookiSession newSession() {
+        return new DookiSession();
+    }
+
+    /**
+     * Waits for pending changes to reach disk and stops background persistence.
+     * Should be called once the frontend is done with this instance.
+     */
+    public void shutdown() {
+        this.taskManager.close();
+    }
+
+    /**
+     * Checks whether a response reports a failed command.
+     *
+     * @param response a response from {@link #getResponse(String)}.
+     * @return true if the command failed.
+     */
+    public static boolean isError(String response) {
+        return response.startsWith(ERROR_PREFIX);
+    }
+
+    /**
+     * Holds back persistence of the following commands until {@link #commitBatch()}.
+     */
+    public void beginBatch() {
+        this.taskManager.beginBatch();
+    }
+
+    /**
+     * Persists every change made since {@link #beginBatch()} in one write.
+     */
+    public void commitBatch() {
+        this.taskManager.commitBatch();
     }
 
     /**
-     * Produces a response for the given user input.
+     * Produces a response for the given user input in the default session.
      *
      * @param input raw user command.
      * @return textual response.
      */
     public String getResponse(String input) {
-        String trimmed = input == null ? "" : input.trim();
-        if (trimmed.isEmpty()) {
-            return "I didn't understand that command. Please try again?";
+        return getResponse(this.defaultSession, input);
+    }
+
+    /**
+     * Writes the response to the given user input in the default session to a sink.
+     *
+     * @param input raw user command.
+     * @param out sink for the response.
+     * @throws IOException If the sink fails.
+     * @see #writeResponse(DookiSession, String, Appendable)
+     */
+    public void writeResponse(String input, Appendable out) throws IOException {
+        writeResponse(this.defaultSession, input, out);
+    }
+
+    /**
+     * Writes the response to the given user input in a session to a sink.
+     * Task listings are streamed to the sink as they are rendered instead of being built up in memory first;
+     * every other response is written in one go. The text written is the same as {@link #getResponse}'s.
+     *
+     * @param session session the input belongs to.
+     * @param input raw user command.
+     * @param out sink for the response.
+     * @throws IOException If the sink fails.
+     */
+    public void writeResponse(DookiSession session, String input, Appendable out) throws IOException {
+        assert out != null : "Output must not be null";
+        long start = Stats.startCommand();
+        Command command = Command.scan(input == null ? "" : input);
+        Stats.markParsed();
+        if (command.getWord().equals("list")) {
+            CommandEvent event = new CommandEvent();
+            event.begin();
+            try {
+                writeTaskList(command, out);
+                finishCommand("list", start, event, CommandEvent.OK);
+                return;
+            } catch (IllegalArgumentException e) {
+                // Nothing has been written yet; let getResponse report the error.
+            }
         }
+        out.append(getResponse(session, command, start));
+    }
 
-        String[] tokens = trimmed.split("\\s+", 2);
-        String command = tokens[0];
+    /**
+     * Produces a response for the given user input in a session.
+     * Safe to call from several threads, as long as each session is used by one thread at a time.
+     *
+     * @param session session the input belongs to.
+     * @param input raw user command.
+     * @return textual response.
+     */
+    public String getResponse(DookiSession session, String input) {
+        assert session != null : "Session must not be null";
+        long start = Stats.startCommand();
+        Command command = Command.scan(input == null ? "" : input);
+        Stats.markParsed();
+        return getResponse(session, command, start);
+    }
 
+    /**
+     * Runs a scanned command, recording its latency if {@code start} is a real start time
+     * and reporting it to the flight recorder.
+     */
+    private String getResponse(DookiSession session, Command command, long start) {
+        CommandHandler handler = this.handlers.get(command.getWord());
+        CommandEvent event = new CommandEvent();
+        event.begin();
+        String outcome = CommandEvent.FAILED;
         try {
-            switch (command) {
-            case "bye":
-                this.isExit = true;
-                return GOODBYE_MESSAGE;
-            case "list":
-                return formatTaskList();
-            case "sort":
-                return handleSort();
-            case "delete":
-                return handleDelete(trimmed);
-            case "mark":
-            case "unmark":
-                return handleMarking(trimmed);
-            case "todo":
-                return handleTodo(trimmed);
-            case "deadline":
-                return handleDeadline(trimmed);
-            case "event":
-                return handleEvent(trimmed);
-            case "find":
-                return handleFind(trimmed);
-            default:
+            String response = runHandler(handler, session, command);
+            outcome = isError(response) ? CommandEvent.ERROR : CommandEvent.OK;
+            return response;
+        } finally {
+            finishCommand(handler == null ? UNKNOWN_COMMAND : command.getWord(), start, event, outcome);
+        }
+    }
+
+    private static void finishCommand(String commandWord, long start, CommandEvent event, String outcome) {
+        Stats.finishCommand(commandWord, start);
+        if (event.shouldCommit()) {
+            event.command = commandWord;
+            event.outcome = outcome;
+            event.commit();
+        }
+    }
+
+    private String runHandler(CommandHandler handler, DookiSession session, Command command) {
+        if (command.getWord().isEmpty()) {
+            return "I didn't understand that command. Please try again?";
+        }
+
+        try {
+            if (handler == null) {
                 throw new UnsupportedCommandException();
             }
+            return handler.handle(session, command);
         } catch (UnsupportedCommandException e) {
             return ERROR_PREFIX + "I didn't understand that command. Please try again?";
         } catch (TaskDescriptionIsEmptyException e) {
@@ -115,6 +322,8 @@ public class DookiBot {
                     ? "Your command is missing a required argument :("
                     : e.getMessage();
             return ERROR_PREFIX + message;
+        } catch (InvalidTaskIndexException e) {
+            return ERROR_PREFIX + "These task numbers do not exist: " + e.invalidNumbers + ". Nothing was changed.";
         } catch (IndexOutOfBoundsException e) {
             return ERROR_PREFIX + "You did not provide a valid task index :(";
         } catch (NoTasksFoundException e) {
@@ -124,68 +333,215 @@ public class DookiBot {
         }
     }
 
-    private String handleDelete(String input) {
-        int delIndex = this.commandParser.parseDeleteTask(input);
-        Task removed = this.taskManager.delete(delIndex);
-        return "Noted. I've removed this task:\n" + removed;
+    private String handleBye(DookiSession session) {
+        session.requestExit();
+        this.taskManager.flush();
+        return GOODBYE_MESSAGE;
     }
 
-    private String handleSort() {
-        this.taskManager.sortByDate();
-        return "Sorted tasks by date:\n" + this.taskManager;
+    private String handleDelete(Command command) {
+        List<Task> removed;
+        if (this.commandParser.isDoneSelection(command)) {
+            Stats.markParsed();
+            removed = this.taskManager.deleteDone();
+        } else if (this.commandParser.isIdSelection(command)) {
+            long[] ids = this.commandParser.parseIdSelection(command);
+            Stats.markParsed();
+            removed = this.taskManager.deleteAllById(ids);
+        } else {
+            int[] indices = this.commandParser.parseDeleteSelection(command);
+            Stats.markParsed();
+            removed = this.taskManager.deleteAll(indices);
+        }
+        if (removed.isEmpty()) {
+            return "There are no done tasks to remove.";
+        }
+        if (removed.size() == 1) {
+            return "Noted. I've removed this task:\n" + removed.get(0);
+        }
+        return "Noted. I've removed these " + removed.size() + " tasks:\n" + formatTasks(removed);
     }
 
-    private String handleMarking(String input) {
-        int markIndex = this.commandParser.parseMarkOrUnmark(input);
-        if (input.startsWith("mark")) {
-            this.taskManager.markTaskAsDone(markIndex);
-            return "Nice! I've marked this task as done:\n" + this.taskManager.get(markIndex);
+    private String handleSort(String setting) {
+        switch (setting) {
+        case "":
+            this.taskManager.sortByDate();
+            return "Sorted tasks by date:\n" + this.taskManager;
+        case "keep":
+            this.taskManager.setKeptSorted(true);
+            return "OK, I'll keep a date-ordered view of your tasks. Use 'list sorted' to see it:\n"
+                    + this.taskManager.toSortedString();
+        case "off":
+            this.taskManager.setKeptSorted(false);
+            return "OK, I've stopped keeping a date-ordered view of your tasks.";
+        default:
+            throw new IllegalArgumentException("Input should be of format 'sort', 'sort keep' or 'sort off'!");
         }
-        this.taskManager.markTaskAsUndone(markIndex);
-        return "OK, I've marked this task as not done yet:\n" + this.taskManager.get(markIndex);
     }
 
-    private String handleTodo(String input) throws TaskDescriptionIsEmptyException {
-        HashMap<String, String> taskMap = this.commandParser.parseTodoTask(input);
-        assert taskMap.containsKey("desc") && taskMap.get("desc") != null
-                : "Todo task description should be present";
-        TodoTask newTask = new TodoTask(taskMap.get("desc"));
-        this.taskManager.add(newTask);
-        return formatTaskAdded(newTask);
+    private String handleMarking(Command command, boolean isMarkingDone) {
+        boolean isById = this.commandParser.isIdSelection(command);
+        long[] markIds = isById ? this.commandParser.parseIdSelection(command) : null;
+        int[] markIndices = isById ? null : this.commandParser.parseMarkOrUnmarkSelection(command);
+        Stats.markParsed();
+        if (isMarkingDone) {
+            List<Task> marked = isById
+                    ? this.taskManager.markTasksAsDoneById(markIds)
+                    : this.taskManager.markTasksAsDone(markIndices);
+            return marked.size() == 1
+                    ? "Nice! I've marked this task as done:\n" + marked.get(0)
+                    : "Nice! I've marked these " + marked.size() + " tasks as done:\n" + formatTasks(marked);
+        }
+        List<Task> unmarked = isById
+                ? this.taskManager.markTasksAsUndoneById(markIds)
+                : this.taskManager.markTasksAsUndone(markIndices);
+        return unmarked.size() == 1
+                ? "OK, I've marked this task as not done yet:\n" + unmarked.get(0)
+                : "OK, I've marked these " + unmarked.size() + " tasks as not done yet:\n" + formatTasks(unmarked);
     }
 
-    private String handleDeadline(String input)
-            throws TaskDescriptionIsEmptyException, TaskIsMissingArgumentException {
-        HashMap<String, String> taskMap = this.commandParser.parseDeadlineTask(input);
-        assert taskMap.containsKey("desc") && taskMap.containsKey("by")
-            : "Deadline task must have desc and by";
-        LocalDate deadline = LocalDate.parse(taskMap.get("by"));
-        DeadlineTask newTask = new DeadlineTask(taskMap.get("desc"), deadline);
-        this.taskManager.add(newTask);
-        return formatTaskAdded(newTask);
+    private static String formatTasks(List<Task> tasks) {
+        StringBuilder lines = new StringBuilder();
+        for (Task task : tasks) {
+            if (lines.length() > 0) {
+                lines.append("\n");
+            }
+            lines.append(task);
+        }
+        return lines.toString();
     }
 
-    private String handleEvent(String input)
-            throws TaskDescriptionIsEmptyException, TaskIsMissingArgumentException {
-        HashMap<String, String> taskMap = this.commandParser.parseEventTask(input);
-        assert taskMap.containsKey("desc") && taskMap.containsKey("from") && taskMap.containsKey("to")
-            : "Event task must have desc, from, and to";
-        LocalDate from = LocalDate.parse(taskMap.get("from"));
-        LocalDate to = LocalDate.parse(taskMap.get("to"));
-        EventTask newTask = new EventTask(taskMap.get("desc"), from, to);
+    private String handleAdd(AddTaskCommand command) {
+        Stats.markParsed();
+        Task newTask = command.toTask();
         this.taskManager.add(newTask);
         return formatTaskAdded(newTask);
     }
 
-    private String handleFind(String input) {
-        String keyword = this.commandParser.parseFindTask(input);
-        List<Task> matches = this.taskManager.find(keyword);
+    private String handleFind(Command command) {
+        String keyword = this.commandParser.parseFindTask(command);
+        Stats.markParsed();
+        List<Task> matches;
+        if (keyword.startsWith(WHOLE_WORD_FLAG) && keyword.length() > WHOLE_WORD_FLAG.length()) {
+            matches = this.taskManager.findWord(keyword.substring(WHOLE_WORD_FLAG.length()).strip());
+        } else if (keyword.endsWith(PREFIX_WILDCARD) && keyword.length() > PREFIX_WILDCARD.length()) {
+            matches = this.taskManager.findPrefix(keyword.substring(0, keyword.length() - PREFIX_WILDCARD.length()));
+        } else {
+            matches = this.taskManager.find(keyword);
+        }
         assert matches != null : "Find operation should produce a list";
         return formatFindResults(matches);
     }
 
-    private String formatTaskList() {
-        return "Here are the tasks in your list:\n" + this.taskManager;
+    private String handleDue(Command command) {
+        LocalDate date = this.commandParser.parseDueTask(command);
+        Stats.markParsed();
+        return formatMatches("Here are the tasks due by " + date.format(DISPLAY_DATE) + ":",
+                this.taskManager.findDueBy(date));
+    }
+
+    private String handleBetween(Command command) {
+        LocalDate[] range = this.commandParser.parseBetweenTask(command);
+        Stats.markParsed();
+        return formatMatches("Here are the tasks from " + range[0].format(DISPLAY_DATE)
+                + " to " + range[1].format(DISPLAY_DATE) + ":", this.taskManager.findBetween(range[0], range[1]));
+    }
+
+    private String handleIndex(String setting) {
+        if (setting.equals("on") || setting.equals("off")) {
+            this.taskManager.setTrigramIndexEnabled(setting.equals("on"));
+        } else if (!setting.isEmpty()) {
+            throw new IllegalArgumentException("Input should be of format 'index', 'index on' or 'index off'!");
+        }
+        return this.taskManager.describeTrigramIndex();
+    }
+
+    private String handleStats(String setting) {
+        switch (setting) {
+        case "":
+            return Stats.report();
+        case "on":
+            Stats.setEnabled(true);
+            return "OK, I'm recording how long each command takes. Use 'stats' to see the numbers.";
+        case "off":
+            Stats.setEnabled(false);
+            return "OK, I've stopped recording command timings.";
+        case "reset":
+            Stats.reset();
+            return "OK, I've cleared the recorded timings.";
+        default:
+            throw new IllegalArgumentException("Input should be of format 'stats', 'stats on', 'stats off' "
+                    + "or 'stats reset'!");
+        }
+    }
+
+    private String formatTaskList(Command command) {
+        StringBuilder builder = new StringBuilder();
+        try {
+            writeTaskList(command, builder);
+        } catch (IOException e) {
+            // A StringBuilder never throws.
+            throw new UncheckedIOException(e);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Writes the whole list, one page of it, or one of its other views.
+     * Arguments are validated before anything is written.
+     */
+    private void writeTaskList(Command command, Appendable out) throws IOException {
+        String view = command.getArgument();
+        if (view.equals("sorted")) {
+            if (!this.taskManager.isKeptSorted()) {
+                throw new IllegalArgumentException("Use 'sort keep' to start keeping a date-ordered view first!");
+            }
+            out.append("Here are the tasks in your list, by date:\n").append(this.taskManager.toSortedString());
+            return;
+        }
+        if (view.equals("ids")) {
+            out.append("Here are the tasks in your list, with their ids:\n").append(this.taskManager.toIdString());
+            return;
+        }
+        if (view.equals("done") || view.equals("undone")) {
+            String listing = this.taskManager.toStatusString(view.equals("done"));
+            if (listing.isEmpty()) {
+                out.append("There are no ").append(view).append(" tasks in your list.");
+            } else {
+                out.append("Here are the ").append(view).append(" tasks in your list:\n").append(listing);
+            }
+            return;
+        }
+        int taskCount = this.taskManager.size();
+        if (view.isEmpty()) {
+            out.append("Here are the tasks in your list:\n");
+            writeTasks(out, 0, taskCount);
+            return;
+        }
+        int[] page = this.commandParser.parseListPage(command);
+        Stats.markParsed();
+        int pageSize = page[1];
+        int pageCount = Math.max(1, (int) (((long) taskCount + pageSize - 1) / pageSize));
+        if (page[0] > pageCount) {
+            throw new IllegalArgumentException("Your list only has " + pageCount + " page(s) of "
+                    + pageSize + " tasks!");
+        }
+        out.append("Here are the tasks in your list (page ").append(String.valueOf(page[0]))
+                .append(" of ").append(String.valueOf(pageCount)).append("):\n");
+        writeTasks(out, (page[0] - 1) * pageSize, pageSize);
+    }
+
+    private String formatSummary() {
+        int doneCount = this.taskManager.countDone();
+        int undoneCount = this.taskManager.countUndone();
+        return "You have " + (doneCount + undoneCount) + " tasks in the list: "
+                + doneCount + " done and " + undoneCount + " still to do.";
+    }
+
+    private void writeTasks(Appendable out, int fromIndex, int count) throws IOException {
+        if (this.taskManager.writeTasks(out, fromIndex, count) == 0) {
+            out.append(" (no tasks yet)");
+        }
     }
 
     private String formatTaskAdded(Task task) {
@@ -195,8 +551,12 @@ public class DookiBot {
     }
 
     private String formatFindResults(List<Task> matches) {
+        return formatMatches("Here are the matching tasks in your list:", matches);
+    }
+
+    private String formatMatches(String header, List<Task> matches) {
         StringBuilder builder = new StringBuilder();
-        builder.append("Here are the matching tasks in your list:\n");
+        builder.append(header).append("\n");
         for (int i = 0; i < matches.size(); i++) {
             builder.append(i + 1).append(".").append(matches.get(i));
             if (i != matches.size() - 1) {
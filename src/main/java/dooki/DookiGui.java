@@ -13,16 +13,25 @@ import javafx.stage.Stage;
  */
 public class DookiGui extends Application {
     private final DookiBot dookiBot = new DookiBot();
+    private MainWindow controller;
 
     @Override
     public void start(Stage stage) throws IOException {
         FXMLLoader fxmlLoader = new FXMLLoader(DookiGui.class.getResource("/view/MainWindow.fxml"));
         Scene scene = new Scene(fxmlLoader.load());
-        MainWindow controller = fxmlLoader.getController();
-        controller.setDooki(dookiBot);
+        this.controller = fxmlLoader.getController();
+        this.controller.setDooki(dookiBot);
 
         stage.setTitle("Dooki");
         stage.setScene(scene);
         stage.show();
     }
+
+    @Override
+    public void stop() {
+        if (this.controller != null) {
+            this.controller.shutdown();
+        }
+        dookiBot.shutdown();
+    }
 }
@@ -0,0 +1,22 @@
+package dooki;
+
+/**
+ * Conversation state of one user of a shared {@link DookiBot}.
+ * Sessions are cheap; the task list and parsers they act on belong to the bot.
+ */
+public class DookiSession {
+    private volatile boolean isExit;
+
+    /**
+     * Whether the last command in this session requested exit.
+     *
+     * @return true if the user asked to exit.
+     */
+    public boolean shouldExit() {
+        return this.isExit;
+    }
+
+    void requestExit() {
+        this.isExit = true;
+    }
+}
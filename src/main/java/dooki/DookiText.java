@@ -1,5 +1,6 @@
 package dooki;
 
+import java.io.IOException;
 import java.util.Scanner;
 
 import display.UiText;
@@ -32,12 +33,17 @@ public class DookiText {
                 break;
             }
             String inp = this.sc.nextLine();
-            String response = this.dookiBot.getResponse(inp);
-            this.ui.showPlain(response);
+            try {
+                this.ui.showStreamed(out -> this.dookiBot.writeResponse(inp, out));
+            } catch (IOException e) {
+                // Standard output never throws; it only sets its error flag.
+                break;
+            }
             if (this.dookiBot.shouldExit()) {
                 break;
             }
         }
+        this.dookiBot.shutdown();
     }
 
     /**
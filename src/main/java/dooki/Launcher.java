@@ -1,20 +1,127 @@
 package dooki;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 import javafx.application.Application;
+import parser.StorageParser;
+import server.DookiServer;
+import storage.Storage;
+import storage.StorageFormat;
 
 /**
  * Main entry point to launch either the GUI or text UI.
  */
 public class Launcher {
+    private static final String NO_JOURNAL_OPTION = "--no-journal";
+    private static final String IMMEDIATE_WRITES_OPTION = "--immediate-writes";
+    private static final String TRIGRAM_INDEX_OPTION = "--trigram-index";
+
     /**
      * Launches Dooki. Use first CLI argument "text" to run the CLI; otherwise starts the GUI.
+     * Use "convert text" or "convert binary" to migrate the save file to the given format.
+     * Use "server [port]" to serve the command language to local network clients.
+     * Use "batch FILE" to run every command in FILE and save once at the end.
+     * Options may come before any of these: "--no-journal" rewrites the whole save file on every
+     * change instead of appending to a change journal, "--immediate-writes" saves each change before
+     * replying instead of in the background, and "--trigram-index" indexes substring searches from the start.
      * @param args command line arguments.
      */
     public static void main(String[] args) {
-        if (args.length > 0 && "text".equalsIgnoreCase(args[0])) {
+        String[] arguments = applyOptions(args);
+        if (arguments.length > 0 && "text".equalsIgnoreCase(arguments[0])) {
             new DookiText().start();
             return;
         }
-        Application.launch(DookiGui.class, args);
+        if (arguments.length > 0 && "convert".equalsIgnoreCase(arguments[0])) {
+            convert(arguments);
+            return;
+        }
+        if (arguments.length > 0 && "batch".equalsIgnoreCase(arguments[0])) {
+            if (arguments.length < 2) {
+                System.out.println("Usage: batch FILE");
+                return;
+            }
+            new DookiBatch(new DookiBot(false)).start(Path.of(arguments[1]));
+            return;
+        }
+        if (arguments.length > 0 && "server".equalsIgnoreCase(arguments[0])) {
+            serve(arguments);
+            return;
+        }
+        Application.launch(DookiGui.class, arguments);
+    }
+
+    /**
+     * Turns leading options into the system properties DookiBot reads.
+     * @return the remaining arguments.
+     */
+    private static String[] applyOptions(String[] args) {
+        int first = 0;
+        while (first < args.length && args[first].startsWith("--")) {
+            if (args[first].equals(NO_JOURNAL_OPTION)) {
+                System.setProperty(DookiBot.JOURNAL_PROPERTY, "false");
+            } else if (args[first].equals(IMMEDIATE_WRITES_OPTION)) {
+                System.setProperty(DookiBot.BACKGROUND_WRITES_PROPERTY, "false");
+            } else if (args[first].equals(TRIGRAM_INDEX_OPTION)) {
+                System.setProperty(DookiBot.TRIGRAM_INDEX_PROPERTY, "true");
+            } else {
+                System.out.println("Ignoring unknown option " + args[first]);
+            }
+            first++;
+        }
+        return Arrays.copyOfRange(args, first, args.length);
+    }
+
+    private static void convert(String[] args) {
+        StorageFormat target;
+        try {
+            target = StorageFormat.valueOf(args.length > 1 ? args[1].toUpperCase() : "");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Usage: convert text|binary");
+            return;
+        }
+        Storage storage = new Storage(new StorageParser(), true);
+        int converted = storage.convert(target);
+        if (storage.isReadOnly()) {
+            System.out.println("The save file was not converted.");
+            return;
+        }
+        System.out.println("Converted " + converted + " task(s) to the " + target.name().toLowerCase() + " format.");
+    }
+
+    private static void serve(String[] args) {
+        int port;
+        try {
+            port = args.length > 1 ? Integer.parseInt(args[1]) : DookiServer.DEFAULT_PORT;
+        } catch (NumberFormatException e) {
+            System.out.println("Usage: server [port]");
+            return;
+        }
+        DookiBot dookiBot = new DookiBot();
+        CountDownLatch stopped = new CountDownLatch(1);
+        try (DookiServer server = new DookiServer(dookiBot, new InetSocketAddress("localhost", port))) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.close();
+                try {
+                    // Lets the event loop close its sessions before the bot stops saving.
+                    stopped.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                dookiBot.shutdown();
+            }));
+            System.out.println("Dooki is listening on port " + server.getPort() + ".");
+            server.serve();
+        } catch (IOException e) {
+            System.out.println("Something went wrong while running the server: " + e.getMessage());
+        } finally {
+            dookiBot.shutdown();
+            stopped.countDown();
+        }
     }
 }
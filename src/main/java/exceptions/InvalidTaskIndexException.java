@@ -0,0 +1,17 @@
+package exceptions;
+
+/**
+ * Custom exception that activates when a selection of several tasks names task numbers that do not exist.
+ */
+public class InvalidTaskIndexException extends IndexOutOfBoundsException {
+    public final String invalidNumbers;
+
+    /**
+     * Instantiates invalid task index exception.
+     * @param invalidNumbers The offending task numbers and ranges, e.g. "0, 12-15".
+     */
+    public InvalidTaskIndexException(String invalidNumbers) {
+        super("Invalid task numbers: " + invalidNumbers);
+        this.invalidNumbers = invalidNumbers;
+    }
+}
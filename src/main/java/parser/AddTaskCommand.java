@@ -0,0 +1,30 @@
+package parser;
+
+import tasks.Task;
+
+/**
+ * A parsed command that adds a task, such as {@code "todo read book"}.
+ * Each subclass holds the typed arguments of one task type.
+ */
+public abstract class AddTaskCommand {
+    private final String description;
+
+    /**
+     * Constructor for an add-task command.
+     * @param description Non-empty task description.
+     */
+    protected AddTaskCommand(String description) {
+        assert description != null && !description.isEmpty() : "Task description should not be empty";
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return this.description;
+    }
+
+    /**
+     * Creates the task this command adds.
+     * @return a new, not yet done task.
+     */
+    public abstract Task toTask();
+}
@@ -0,0 +1,64 @@
+package parser;
+
+/**
+ * A line of user input split into its command word and the argument that follows it,
+ * e.g. {@code "deadline return book /by 2019-12-02"} has the word {@code "deadline"} and the
+ * argument {@code "return book /by 2019-12-02"}.
+ * The input is scanned once; {@link CommandParser} reads typed arguments from the argument text.
+ */
+public class Command {
+    private final String input;
+    private final String word;
+    private final String argument;
+
+    private Command(String input, String word, String argument) {
+        this.input = input;
+        this.word = word;
+        this.argument = argument;
+    }
+
+    /**
+     * Splits a line of input at the first run of whitespace, ignoring leading and trailing whitespace.
+     * @param input Raw input line.
+     * @return The command; its word is empty if the input is blank, and its argument is empty if there is none.
+     */
+    public static Command scan(String input) {
+        assert input != null : "Command input should not be null";
+        String trimmed = input.trim();
+        int wordEnd = 0;
+        while (wordEnd < trimmed.length() && !isWhitespace(trimmed.charAt(wordEnd))) {
+            wordEnd++;
+        }
+        int argumentStart = wordEnd;
+        while (argumentStart < trimmed.length() && isWhitespace(trimmed.charAt(argumentStart))) {
+            argumentStart++;
+        }
+        return new Command(trimmed, trimmed.substring(0, wordEnd), trimmed.substring(argumentStart));
+    }
+
+    /**
+     * Matches exactly the characters of the regex class {@code \s}.
+     */
+    static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /**
+     * Returns the whole command, without leading or trailing whitespace.
+     */
+    public String getInput() {
+        return this.input;
+    }
+
+    public String getWord() {
+        return this.word;
+    }
+
+    public String getArgument() {
+        return this.argument;
+    }
+
+    public boolean hasArgument() {
+        return !this.argument.isEmpty();
+    }
+}
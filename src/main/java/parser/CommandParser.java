@@ -1,18 +1,33 @@
 package parser;
 
-import java.util.HashMap;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 
 import exceptions.CommandIsMissingArgumentException;
+import exceptions.InvalidTaskIndexException;
 import exceptions.TaskDescriptionIsEmptyException;
 import exceptions.TaskIsMissingArgumentException;
 import tasks.TaskManager;
 
 /**
  * Provides string processing for Dooki.
+ * Reads the typed arguments of a {@link Command}, scanning its argument text once without regexes.
  * Will use the internal state of Dooki to make validation checks,
  * and throw errors otherwise.
  */
 public class CommandParser {
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    private static final String ID_PREFIX = "#";
+    private static final String BY_MARKER = "/by ";
+    private static final String FROM_MARKER = "/from ";
+    private static final String TO_MARKER = "/to ";
+    private static final String LIST_USAGE = "Input should be of format 'list', 'list PAGE', 'list PAGE PAGE_SIZE', "
+            + "'list sorted', 'list ids', 'list done' or 'list undone'!";
+
     private final TaskManager taskManager;
 
     /**
@@ -25,139 +40,322 @@ public class CommandParser {
     }
 
     /**
-     * Parses a string of the form:
-     * - "mark x", or
-     * - "unmark x".
-     * If successful, returns x as an integer.
-     * @param inp Raw input string
-     * @return An integer corresponding to the index.
+     * Parses a command of the form "mark SELECTION" or "unmark SELECTION", where SELECTION is a
+     * comma-separated list of task numbers and ranges, e.g. "mark 1,4,9" or "unmark 3-500".
+     * @param command Scanned input
+     * @return Ascending, distinct 0-based indices of the selected tasks.
+     * @throws InvalidTaskIndexException If a list or range names tasks that do not exist.
      */
-    public int parseMarkOrUnmark(String inp) throws IllegalArgumentException, IndexOutOfBoundsException {
-        assert inp != null : "Mark/Unmark input should not be null";
-        return parseIndexedCommand(inp, "Input should be of format 'mark x' or 'unmark x'!");
+    public int[] parseMarkOrUnmarkSelection(Command command)
+            throws IllegalArgumentException, IndexOutOfBoundsException {
+        assert command != null : "Mark/Unmark input should not be null";
+        return parseIndexSelection(command, "Input should be of format 'mark x', 'mark x,y' or 'mark x-y'!");
     }
 
     /**
-     * The more eagle-eyed reader will notice this is the same function as above.
-     * But it is nevertheless copy-pasted in order to prevent coupling.
-     * @param inp Raw input string
-     * @return An integer corresponding to the index.
+     * Parses a command of the form "delete SELECTION"; see {@link #parseMarkOrUnmarkSelection(Command)}.
+     * @param command Scanned input
+     * @return Ascending, distinct 0-based indices of the selected tasks.
+     * @throws InvalidTaskIndexException If a list or range names tasks that do not exist.
      */
-    public int parseDeleteTask(String inp) throws IllegalArgumentException, IndexOutOfBoundsException {
-        assert inp != null : "Delete input should not be null";
-        return parseIndexedCommand(inp, "Input should be of format 'delete x'!");
+    public int[] parseDeleteSelection(Command command) throws IllegalArgumentException, IndexOutOfBoundsException {
+        assert command != null : "Delete input should not be null";
+        return parseIndexSelection(command, "Input should be of format 'delete x', 'delete x,y', 'delete x-y' "
+                + "or 'delete done'!");
     }
+
+    /**
+     * Checks whether a command selects every task marked as done, as in "delete done".
+     * @param command Scanned input
+     * @return true if the command's argument is "done".
+     */
+    public boolean isDoneSelection(Command command) {
+        return command.getArgument().equals("done");
+    }
+
     /**
-    * Parses a string of the form {@code "todo DESCRIPTION"} where DESCRIPTION is non-empty.
-    * If successful, returns a Hashmap containing that string.
-    * Adapted: https://stackoverflow.com/questions/26750963/what-does-replace-do-if-no-match-is-found-under-the-hood
-    * @param inp Raw input string
-    * @return A hashmap containing the title of the task in the "desc" key.
+     * Parses a command of the form "list PAGE" or "list PAGE PAGE_SIZE", both positive numbers.
+     * The page size defaults to {@link #DEFAULT_PAGE_SIZE}. Pages past the end are not checked here.
+     * @param command Scanned input
+     * @return The 1-based page number and the page size.
+     * @throws IllegalArgumentException If either number is missing, malformed or not positive.
      */
-    public HashMap<String, String> parseTodoTask(String inp) throws TaskDescriptionIsEmptyException {
-        assert inp != null : "Todo input should not be null";
-        String arg = inp.replaceFirst("todo", "").strip();
-        if (arg.isEmpty()) {
-            throw new TaskDescriptionIsEmptyException(inp);
+    public int[] parseListPage(Command command) throws IllegalArgumentException {
+        assert command != null : "List input should not be null";
+        String[] words = splitWords(command.getArgument());
+        if (words.length < 1 || words.length > 2) {
+            throw new IllegalArgumentException(LIST_USAGE);
+        }
+        try {
+            int page = Integer.parseInt(words[0]);
+            int pageSize = words.length == 2 ? Integer.parseInt(words[1]) : DEFAULT_PAGE_SIZE;
+            if (page < 1 || pageSize < 1) {
+                throw new IllegalArgumentException(LIST_USAGE);
+            }
+            return new int[] {page, pageSize};
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(LIST_USAGE);
         }
-        HashMap<String, String> taskSpec = new HashMap<>();
-        taskSpec.put("desc", arg);
-        return taskSpec;
     }
 
     /**
-    * Parses a string of the form {@code "deadline DESCRIPTION /by DEADLINE"} with both parts non-empty.
-    * If successful, returns a Hashmap containing those 2 strings.
-    * Adapted: https://stackoverflow.com/questions/26750963/what-does-replace-do-if-no-match-is-found-under-the-hood
-    * @param inp Raw input string
-    * @return A hashmap containing:
-    *      - the title of the task in the "desc" key.
-    *      - the deadline of the task in the "by" key.
+     * Checks whether a command addresses tasks by id, as in "mark #12" or "delete #3,#7".
+     * @param command Scanned input
+     * @return true if the command's argument starts with '#'.
      */
-    public HashMap<String, String> parseDeadlineTask(
-            String inp
+    public boolean isIdSelection(Command command) {
+        return command.getArgument().startsWith(ID_PREFIX);
+    }
+
+    /**
+     * Parses the argument of a command that addresses tasks by id, a comma-separated list such as "#3,#7".
+     * Ids are not checked against the task list here; unknown ids are reported when the command is applied.
+     * @param command Scanned input
+     * @return The distinct ids, in the order given.
+     * @throws IllegalArgumentException If an item is not an id, e.g. when ids and task numbers are mixed.
+     */
+    public long[] parseIdSelection(Command command) throws IllegalArgumentException {
+        assert command != null : "Id selection input should not be null";
+        if (!command.hasArgument()) {
+            throw new IllegalArgumentException("Input should be of format 'mark #id' or 'mark #id,#id'!");
+        }
+        LinkedHashSet<Long> ids = new LinkedHashSet<>();
+        for (String item : splitItems(command.getArgument())) {
+            if (!item.startsWith(ID_PREFIX)) {
+                throw new IllegalArgumentException("Use either task numbers or #ids in one command, not both!");
+            }
+            try {
+                ids.add(Long.parseLong(item.substring(ID_PREFIX.length())));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("'" + item + "' is not a valid task id!");
+            }
+        }
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Parses a command of the form {@code "todo DESCRIPTION"} where DESCRIPTION is non-empty.
+     * @param command Scanned input
+     * @return The todo to add.
+     */
+    public TodoCommand parseTodoTask(Command command) throws TaskDescriptionIsEmptyException {
+        assert command != null : "Todo input should not be null";
+        if (!command.hasArgument()) {
+            throw new TaskDescriptionIsEmptyException(command.getInput());
+        }
+        return new TodoCommand(command.getArgument());
+    }
+
+    /**
+     * Parses a command of the form {@code "deadline DESCRIPTION /by DEADLINE"} with both parts non-empty,
+     * where DEADLINE is in yyyy-MM-dd format.
+     * @param command Scanned input
+     * @return The deadline to add.
+     * @throws DateTimeParseException If the deadline is not a valid date.
+     */
+    public DeadlineCommand parseDeadlineTask(
+            Command command
     ) throws TaskDescriptionIsEmptyException, TaskIsMissingArgumentException {
-        assert inp != null : "Deadline input should not be null";
-        String deadlineString = inp.replaceFirst("deadline", "").strip();
-        String[] args = deadlineString.split("/by ");
-        if (args.length != 2) {
-            throw new TaskIsMissingArgumentException(inp, "/by");
-        }
-        HashMap<String, String> taskSpec = new HashMap<>();
-        String desc = args[0].strip();
+        assert command != null : "Deadline input should not be null";
+        String argument = command.getArgument();
+        int by = indexOfOnly(argument, BY_MARKER, 0);
+        if (by < 0) {
+            throw new TaskIsMissingArgumentException(command.getInput(), "/by");
+        }
+        String desc = argument.substring(0, by).strip();
         if (desc.isEmpty()) {
-            throw new TaskDescriptionIsEmptyException(inp);
+            throw new TaskDescriptionIsEmptyException(command.getInput());
         }
-        taskSpec.put("desc", desc);
-        taskSpec.put("by", args[1].strip());
-        return taskSpec;
+        return new DeadlineCommand(desc, LocalDate.parse(argument.substring(by + BY_MARKER.length()).strip()));
     }
 
     /**
-    * Parses a string of the form {@code "event DESCRIPTION /from START /to END"} with all parts non-empty.
-    * If successful, returns a Hashmap containing those 3 strings.
-    * Adapted: https://stackoverflow.com/questions/26750963/what-does-replace-do-if-no-match-is-found-under-the-hood
-    * @param inp Raw input string
-    * @return A hashmap containing:
-    *      - the title of the task in the "desc" key.
-    *      - the start time of the task in the "from" key.
-    *      - the end time of the task in the "to" key.
+     * Parses a command of the form {@code "event DESCRIPTION /from START /to END"} with all parts non-empty,
+     * where START and END are in yyyy-MM-dd format.
+     * @param command Scanned input
+     * @return The event to add.
+     * @throws DateTimeParseException If either date is not a valid date.
      */
-    public HashMap<String, String> parseEventTask(
-            String inp
+    public EventCommand parseEventTask(
+            Command command
     ) throws TaskDescriptionIsEmptyException, TaskIsMissingArgumentException {
-        assert inp != null : "Event input should not be null";
-        String eventString = inp.replaceFirst("event", "").strip();
-        String[] args = eventString.split("/from ");
-        HashMap<String, String> taskSpec = new HashMap<>();
-        String desc = args[0].strip();
+        assert command != null : "Event input should not be null";
+        String argument = command.getArgument();
+        int from = argument.indexOf(FROM_MARKER);
+        String desc = (from < 0 ? argument : argument.substring(0, from)).strip();
         if (desc.isEmpty()) {
-            throw new TaskDescriptionIsEmptyException(inp);
+            throw new TaskDescriptionIsEmptyException(command.getInput());
         }
-        taskSpec.put("desc", desc);
-        if (args.length != 2) {
-            throw new TaskIsMissingArgumentException(inp, "/from");
+        if (from < 0 || argument.indexOf(FROM_MARKER, from + FROM_MARKER.length()) >= 0) {
+            throw new TaskIsMissingArgumentException(command.getInput(), "/from");
         }
-        args = args[1].split("/to ");
-        if (args.length != 2) {
-            throw new TaskIsMissingArgumentException(inp, "/to");
+        int datesStart = from + FROM_MARKER.length();
+        int to = indexOfOnly(argument, TO_MARKER, datesStart);
+        if (to < 0) {
+            throw new TaskIsMissingArgumentException(command.getInput(), "/to");
         }
-        taskSpec.put("from", args[0].strip());
-        taskSpec.put("to", args[1].strip());
-        return taskSpec;
+        LocalDate start = LocalDate.parse(argument.substring(datesStart, to).strip());
+        LocalDate end = LocalDate.parse(argument.substring(to + TO_MARKER.length()).strip());
+        return new EventCommand(desc, start, end);
     }
 
     /**
-     * Parses a string of the form {@code "find KEYWORD"} where KEYWORD is non-empty.
+     * Parses a command of the form {@code "find KEYWORD"} where KEYWORD is non-empty.
      * Note that this string will be used as a keyword to search for tasks.
-     * @param inp Raw input string.
+     * @param command Scanned input.
      * @return the keyword to search for.
      * @throws CommandIsMissingArgumentException if keyword is missing or blank.
      */
-    public String parseFindTask(String inp) throws CommandIsMissingArgumentException {
-        assert inp != null : "Find input should not be null";
-        String keyword = inp.replaceFirst("find", "").strip();
-        if (keyword.isEmpty()) {
-            throw new CommandIsMissingArgumentException(inp);
+    public String parseFindTask(Command command) throws CommandIsMissingArgumentException {
+        assert command != null : "Find input should not be null";
+        if (!command.hasArgument()) {
+            throw new CommandIsMissingArgumentException(command.getInput());
+        }
+        return command.getArgument();
+    }
+
+    /**
+     * Parses a command of the form {@code "due DATE"} where DATE is in yyyy-MM-dd format.
+     * @param command Scanned input.
+     * @return the date tasks must be due by.
+     * @throws IllegalArgumentException if the date is missing.
+     */
+    public LocalDate parseDueTask(Command command) throws IllegalArgumentException {
+        assert command != null : "Due input should not be null";
+        String[] words = splitWords(command.getArgument());
+        if (words.length != 1) {
+            throw new IllegalArgumentException("Input should be of format 'due yyyy-MM-dd'!");
+        }
+        return LocalDate.parse(words[0]);
+    }
+
+    /**
+     * Parses a command of the form {@code "between FROM TO"} where FROM and TO are in yyyy-MM-dd format.
+     * @param command Scanned input.
+     * @return the first and last date of the range.
+     * @throws IllegalArgumentException if either date is missing or the range is backwards.
+     */
+    public LocalDate[] parseBetweenTask(Command command) throws IllegalArgumentException {
+        assert command != null : "Between input should not be null";
+        String[] words = splitWords(command.getArgument());
+        if (words.length != 2) {
+            throw new IllegalArgumentException("Input should be of format 'between yyyy-MM-dd yyyy-MM-dd'!");
         }
-        return keyword;
+        LocalDate from = LocalDate.parse(words[0]);
+        LocalDate to = LocalDate.parse(words[1]);
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("The first date should not be after the second date!");
+        }
+        return new LocalDate[] {from, to};
     }
 
-    private int parseIndexedCommand(String inp, String usageMessage)
+    private int[] parseIndexSelection(Command command, String usageMessage)
             throws IllegalArgumentException, IndexOutOfBoundsException {
-        String[] tokens = inp.split(" ");
-        if (tokens.length < 2) {
+        if (!command.hasArgument()) {
             throw new IllegalArgumentException(usageMessage);
         }
-        /*
-         Note: The website specification implies the list uses 1-indexing
-         (as far as the user is concerned)
-         So we must compensate.
-        */
-        int index = Integer.parseInt(tokens[1]) - 1;
-        if (index < 0 || index >= this.taskManager.size()) {
-            throw new IndexOutOfBoundsException("Invalid task number.");
+        List<String> items = splitItems(command.getArgument());
+        int size = this.taskManager.size();
+        BitSet selected = new BitSet(size);
+        List<String> invalid = new ArrayList<>();
+        for (String item : items) {
+            if (item.startsWith(ID_PREFIX)) {
+                throw new IllegalArgumentException("Use either task numbers or #ids in one command, not both!");
+            }
+            // Task numbers are 1-based as far as the user is concerned; a leading '-' is a sign, not a range.
+            int dash = item.indexOf('-', 1);
+            int from;
+            int to;
+            try {
+                from = Integer.parseInt(dash < 0 ? item : item.substring(0, dash));
+                to = dash < 0 ? from : Integer.parseInt(item.substring(dash + 1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(usageMessage);
+            }
+            if (from > to) {
+                throw new IllegalArgumentException("Ranges should go from the lower to the higher task number!");
+            }
+            if (from < 1) {
+                invalid.add(formatRange(from, Math.min(to, 0)));
+            }
+            if (to > size) {
+                invalid.add(formatRange(Math.max(from, size + 1), to));
+            }
+            if (Math.max(from, 1) <= Math.min(to, size)) {
+                selected.set(Math.max(from, 1) - 1, Math.min(to, size));
+            }
+        }
+        if (!invalid.isEmpty()) {
+            boolean isSingleNumber = items.size() == 1 && items.get(0).indexOf('-', 1) < 0;
+            if (isSingleNumber) {
+                throw new IndexOutOfBoundsException("Invalid task number.");
+            }
+            throw new InvalidTaskIndexException(String.join(", ", invalid));
+        }
+        return selected.stream().toArray();
+    }
+
+    private static String formatRange(int from, int to) {
+        return from == to ? String.valueOf(from) : from + "-" + to;
+    }
+
+    /**
+     * Finds the only occurrence of a marker at or after the given position.
+     *
+     * @return the marker's position, or -1 if it does not occur or occurs more than once.
+     */
+    private static int indexOfOnly(String text, String marker, int fromIndex) {
+        int index = text.indexOf(marker, fromIndex);
+        if (index < 0 || text.indexOf(marker, index + marker.length()) >= 0) {
+            return -1;
         }
         return index;
     }
+
+    /**
+     * Splits an argument into its whitespace-separated words.
+     */
+    private static String[] splitWords(String argument) {
+        List<String> words = new ArrayList<>();
+        int i = 0;
+        while (i < argument.length()) {
+            while (i < argument.length() && Command.isWhitespace(argument.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < argument.length() && !Command.isWhitespace(argument.charAt(i))) {
+                i++;
+            }
+            if (i > start) {
+                words.add(argument.substring(start, i));
+            }
+        }
+        return words.toArray(new String[0]);
+    }
+
+    /**
+     * Splits an argument at commas, dropping whitespace around each item and empty items at the end.
+     */
+    private static List<String> splitItems(String argument) {
+        List<String> items = new ArrayList<>();
+        int start = 0;
+        while (start <= argument.length()) {
+            int comma = argument.indexOf(',', start);
+            int end = comma < 0 ? argument.length() : comma;
+            int itemStart = start;
+            while (itemStart < end && Command.isWhitespace(argument.charAt(itemStart))) {
+                itemStart++;
+            }
+            int itemEnd = end;
+            while (itemEnd > itemStart && Command.isWhitespace(argument.charAt(itemEnd - 1))) {
+                itemEnd--;
+            }
+            items.add(argument.substring(itemStart, itemEnd));
+            start = end + 1;
+        }
+        while (!items.isEmpty() && items.get(items.size() - 1).isEmpty()) {
+            items.remove(items.size() - 1);
+        }
+        return items;
+    }
 }
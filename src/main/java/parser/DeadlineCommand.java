@@ -0,0 +1,33 @@
+package parser;
+
+import java.time.LocalDate;
+
+import tasks.DeadlineTask;
+import tasks.Task;
+
+/**
+ * A parsed {@code "deadline DESCRIPTION /by DATE"} command.
+ */
+public class DeadlineCommand extends AddTaskCommand {
+    private final LocalDate by;
+
+    /**
+     * Constructor for a deadline command.
+     * @param description Non-empty task description.
+     * @param by Date the task is due.
+     */
+    public DeadlineCommand(String description, LocalDate by) {
+        super(description);
+        assert by != null : "Deadline date should not be null";
+        this.by = by;
+    }
+
+    public LocalDate getBy() {
+        return this.by;
+    }
+
+    @Override
+    public Task toTask() {
+        return new DeadlineTask(this.getDescription(), this.by);
+    }
+}
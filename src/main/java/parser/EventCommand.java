@@ -0,0 +1,40 @@
+package parser;
+
+import java.time.LocalDate;
+
+import tasks.EventTask;
+import tasks.Task;
+
+/**
+ * A parsed {@code "event DESCRIPTION /from DATE /to DATE"} command.
+ */
+public class EventCommand extends AddTaskCommand {
+    private final LocalDate from;
+    private final LocalDate to;
+
+    /**
+     * Constructor for an event command.
+     * @param description Non-empty task description.
+     * @param from Date the event starts.
+     * @param to Date the event ends.
+     */
+    public EventCommand(String description, LocalDate from, LocalDate to) {
+        super(description);
+        assert from != null && to != null : "Event dates should not be null";
+        this.from = from;
+        this.to = to;
+    }
+
+    public LocalDate getFrom() {
+        return this.from;
+    }
+
+    public LocalDate getTo() {
+        return this.to;
+    }
+
+    @Override
+    public Task toTask() {
+        return new EventTask(this.getDescription(), this.from, this.to);
+    }
+}
@@ -1,7 +1,7 @@
 package parser;
 
+import java.time.DateTimeException;
 import java.time.LocalDate;
-import java.time.format.DateTimeParseException;
 
 import exceptions.ParseStorageLineFailureException;
 import tasks.DeadlineTask;
@@ -15,6 +15,7 @@ import tasks.TodoTask;
  * and throw errors otherwise.
  */
 public class StorageParser {
+    private static final int ISO_DATE_LENGTH = 10;
 
     /**
      * Constructor for StorageParser.
@@ -24,50 +25,97 @@ public class StorageParser {
 
     /**
      * Parses a line (describing a task) from storage.Storage
+     * The line may start with the task's numeric id as an extra field, e.g. {@code "12 | T | 0 | read"}.
      * @param line The line from storage.Storage
-     * @return The task represented by the line.
+     * @return The task represented by the line, with its id assigned if the line has one.
      */
     public Task parseStorageLine(String line) throws ParseStorageLineFailureException {
         if (line == null || line.isBlank()) {
             throw new ParseStorageLineFailureException("<<Line was empty or null>>");
         }
         /*
-        Explanation: Split by:
+        Explanation: Fields are separated by:
             - any sequence of whitespace
             - followed by |
             - any sequence of whitespace
-        in that exact order.
+        in that exact order, and trailing empty fields are dropped.
+        This mirrors line.split("\\s*\\|\\s*") in a single pass, without regex or a String[].
+        Each field is kept as a (start, end) pair packed into a long.
         */
-        String[] parts = line.split("\\s*\\|\\s*");
-        if (parts.length < 3) {
+        long id = parseId(line);
+        long typeField = 0;
+        long statusField = 0;
+        long descField = 0;
+        long firstDateField = 0;
+        long secondDateField = 0;
+        int parts = 0;
+        int fieldIndex = 0;
+        int start = id == Task.NO_ID ? 0 : line.indexOf('|') + 1;
+        int length = line.length();
+        while (true) {
+            int pipe = line.indexOf('|', start);
+            boolean isTrimmed = fieldIndex > 0 || id != Task.NO_ID;
+            int fieldStart = isTrimmed ? skipWhitespace(line, start, pipe < 0 ? length : pipe) : start;
+            int fieldEnd = pipe < 0 ? length : trimWhitespace(line, fieldStart, pipe);
+            if (fieldEnd > fieldStart) {
+                parts = fieldIndex + 1;
+            }
+            long field = pack(fieldStart, fieldEnd);
+            switch (fieldIndex) {
+            case 0:
+                typeField = field;
+                break;
+            case 1:
+                statusField = field;
+                break;
+            case 2:
+                descField = field;
+                break;
+            case 3:
+                firstDateField = field;
+                break;
+            case 4:
+                secondDateField = field;
+                break;
+            default:
+                break;
+            }
+            if (pipe < 0) {
+                break;
+            }
+            fieldIndex++;
+            start = pipe + 1;
+        }
+
+        if (parts < 3) {
             throw new ParseStorageLineFailureException("Task '" + line + "' has fewer than 3 parts");
         }
-        String type = parts[0];
-        boolean isDone = parts[1].equals("1");
-        String description = parts[2];
+        char type = singleChar(line, typeField);
+        boolean isDone = singleChar(line, statusField) == '1';
+        String description = line.substring(startOf(descField), endOf(descField));
 
         Task task;
-        if (type.equals("T")) {
+        if (type == 'T') {
             task = new TodoTask(description);
-        } else if (type.equals("D")) {
-            if (parts.length < 4) {
+        } else if (type == 'D') {
+            if (parts < 4) {
                 throw new ParseStorageLineFailureException("DeadlineTask '" + line + "' has no 'by' field");
             }
             try {
-                LocalDate deadline = LocalDate.parse(parts[3]);
+                LocalDate deadline = parseDate(line, firstDateField);
                 task = new DeadlineTask(description, deadline);
-            } catch (DateTimeParseException e) {
+            } catch (DateTimeException e) {
                 throw new ParseStorageLineFailureException("DeadlineTask '" + line + "' has invalid date");
             }
-        } else if (type.equals("E")) {
-            if (parts.length < 5) {
+        } else if (type == 'E') {
+            if (parts < 5) {
                 throw new ParseStorageLineFailureException("EventTask '" + line + "' has no 'from' or 'to' field");
             }
             try {
-                LocalDate from = LocalDate.parse(parts[3]);
-                LocalDate to = LocalDate.parse(parts[4]);
+                LocalDate from = parseDate(line, firstDateField);
+                LocalDate to = parseDate(line, secondDateField);
                 task = new EventTask(description, from, to);
-            } catch (DateTimeParseException e) {
+            } catch (DateTimeException e) {
                 throw new ParseStorageLineFailureException("EventTask '" + line + "' has invalid date(s)");
             }
         } else {
@@ -77,6 +125,122 @@ public class StorageParser {
         if (isDone) {
             task.markDone();
         }
+        if (id != Task.NO_ID) {
+            task.assignId(id);
+        }
         return task;
     }
+
+    /**
+     * Reads the optional leading id field: digits, optional whitespace, then the first '|'.
+     *
+     * @return the id, or {@link Task#NO_ID} if the line does not start with one.
+     */
+    private static long parseId(String line) throws ParseStorageLineFailureException {
+        int pipe = line.indexOf('|');
+        if (pipe <= 0) {
+            return Task.NO_ID;
+        }
+        int end = trimWhitespace(line, 0, pipe);
+        if (end == 0 || !Character.isDigit(line.charAt(0))) {
+            return Task.NO_ID;
+        }
+        long id = 0;
+        for (int i = 0; i < end; i++) {
+            int digit = line.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return Task.NO_ID;
+            }
+            if (id > (Long.MAX_VALUE - digit) / 10) {
+                throw new ParseStorageLineFailureException("Task '" + line + "' has an id that is too large");
+            }
+            id = id * 10 + digit;
+        }
+        if (id == Task.NO_ID) {
+            throw new ParseStorageLineFailureException("Task '" + line + "' has an invalid id");
+        }
+        return id;
+    }
+
+    /**
+     * Decodes a date field. Plain {@code yyyy-MM-dd} dates are decoded directly from their digits;
+     * anything else falls back to {@link LocalDate#parse(CharSequence)} so that the accepted
+     * formats are unchanged.
+     *
+     * @throws DateTimeException if the field is not a valid ISO date.
+     */
+    private static LocalDate parseDate(String line, long field) throws DateTimeException {
+        int start = startOf(field);
+        int end = endOf(field);
+        if (end - start == ISO_DATE_LENGTH
+                && line.charAt(start + 4) == '-' && line.charAt(start + 7) == '-') {
+            int year = digits(line, start, start + 4);
+            int month = digits(line, start + 5, start + 7);
+            int day = digits(line, start + 8, start + 10);
+            if (year >= 0 && month >= 0 && day >= 0) {
+                return LocalDate.of(year, month, day);
+            }
+        }
+        return LocalDate.parse(line.subSequence(start, end));
+    }
+
+    /**
+     * Reads an unsigned decimal number from the given range.
+     *
+     * @return the number, or -1 if the range contains a non-digit.
+     */
+    private static int digits(String line, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = line.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Returns the field's only character, or 0 if the field is not exactly one character long.
+     */
+    private static char singleChar(String line, long field) {
+        int start = startOf(field);
+        return endOf(field) - start == 1 ? line.charAt(start) : 0;
+    }
+
+    private static int skipWhitespace(String line, int start, int end) {
+        int i = start;
+        while (i < end && isWhitespace(line.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int trimWhitespace(String line, int start, int end) {
+        int i = end;
+        while (i > start && isWhitespace(line.charAt(i - 1))) {
+            i--;
+        }
+        return i;
+    }
+
+    /**
+     * Matches exactly the characters of the regex class {@code \s}.
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static long pack(int start, int end) {
+        return ((long) start << 32) | end;
+    }
+
+    private static int startOf(long field) {
+        return (int) (field >>> 32);
+    }
+
+    private static int endOf(long field) {
+        return (int) field;
+    }
 }
@@ -0,0 +1,22 @@
+package parser;
+
+import tasks.Task;
+import tasks.TodoTask;
+
+/**
+ * A parsed {@code "todo DESCRIPTION"} command.
+ */
+public class TodoCommand extends AddTaskCommand {
+    /**
+     * Constructor for a todo command.
+     * @param description Non-empty task description.
+     */
+    public TodoCommand(String description) {
+        super(description);
+    }
+
+    @Override
+    public Task toTask() {
+        return new TodoTask(this.getDescription());
+    }
+}
@@ -0,0 +1,144 @@
+package server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Client for {@link DookiServer}. Can be used on its own to send commands, or run as a program
+ * to measure the server's throughput with several pipelining connections.
+ */
+public class DookiClient implements Closeable {
+    private final Socket socket;
+    private final BufferedReader reader;
+    private final BufferedWriter writer;
+
+    /**
+     * Connects to a server and consumes its welcome message.
+     * @param host Server host.
+     * @param port Server port.
+     * @throws IOException If the connection fails.
+     */
+    public DookiClient(String host, int port) throws IOException {
+        this.socket = new Socket(host, port);
+        this.socket.setTcpNoDelay(true);
+        this.reader = new BufferedReader(new InputStreamReader(this.socket.getInputStream(), StandardCharsets.UTF_8));
+        this.writer = new BufferedWriter(new OutputStreamWriter(this.socket.getOutputStream(), StandardCharsets.UTF_8));
+        readResponse();
+    }
+
+    /**
+     * Queues a command without waiting for its response. Call {@link #flush()} to send queued commands.
+     * @param command A single-line command.
+     * @throws IOException If the connection fails.
+     */
+    public void send(String command) throws IOException {
+        assert command.indexOf('\n') < 0 : "Commands must be a single line";
+        this.writer.write(command);
+        this.writer.write('\n');
+    }
+
+    public void flush() throws IOException {
+        this.writer.flush();
+    }
+
+    /**
+     * Reads the next response, in the order the commands were sent.
+     * @return the response text without its terminator line.
+     * @throws IOException If the connection fails or closes mid-response.
+     */
+    public String readResponse() throws IOException {
+        StringBuilder response = new StringBuilder();
+        String line;
+        while ((line = this.reader.readLine()) != null) {
+            if (line.equals(DookiServer.END_OF_RESPONSE)) {
+                return response.toString();
+            }
+            if (response.length() > 0) {
+                response.append('\n');
+            }
+            response.append(line.startsWith(DookiServer.END_OF_RESPONSE) ? line.substring(1) : line);
+        }
+        throw new IOException("Server closed the connection");
+    }
+
+    /**
+     * Sends a command and waits for its response.
+     * @param command A single-line command.
+     * @return the response text.
+     * @throws IOException If the connection fails.
+     */
+    public String request(String command) throws IOException {
+        send(command);
+        flush();
+        return readResponse();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.socket.close();
+    }
+
+    /**
+     * Measures throughput against a running server. Each connection alternates adding a todo and
+     * searching for it, keeping up to {@code depth} commands in flight.
+     * @param args host, port, connections, commands per connection and pipeline depth, all optional.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : DookiServer.DEFAULT_PORT;
+        int connections = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        int commands = args.length > 3 ? Integer.parseInt(args[3]) : 10_000;
+        int depth = args.length > 4 ? Integer.parseInt(args[4]) : 32;
+
+        ExecutorService pool = Executors.newFixedThreadPool(connections);
+        List<Future<Integer>> results = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int c = 0; c < connections; c++) {
+            int connection = c;
+            results.add(pool.submit(() -> drive(host, port, connection, commands, depth)));
+        }
+        int completed = 0;
+        try {
+            for (Future<Integer> result : results) {
+                completed += result.get();
+            }
+        } catch (ExecutionException e) {
+            System.out.println("A connection failed: " + e.getCause().getMessage());
+        } finally {
+            pool.shutdown();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d command(s) over %d connection(s) in %.2f s: %.0f commands/s%n",
+                completed, connections, seconds, completed / seconds);
+    }
+
+    private static int drive(String host, int port, int connection, int commands, int depth) throws IOException {
+        try (DookiClient client = new DookiClient(host, port)) {
+            int sent = 0;
+            int received = 0;
+            while (received < commands) {
+                while (sent < commands && sent - received < depth) {
+                    String tag = "load" + connection + "x" + (sent / 2);
+                    client.send(sent % 2 == 0 ? "todo " + tag : "find -w " + tag);
+                    sent++;
+                }
+                client.flush();
+                client.readResponse();
+                received++;
+            }
+            return received;
+        }
+    }
+}
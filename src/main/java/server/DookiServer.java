@@ -0,0 +1,407 @@
+package server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import dooki.DookiBot;
+
+/**
+ * Serves Dooki's command language to many clients over TCP from a single NIO event loop.
+ * Each request is one line; each response is the bot's reply followed by a line holding a single
+ * {@code "."} (reply lines that start with a dot get an extra dot, as in SMTP).
+ * Clients may pipeline requests: every complete line received is answered in order, and
+ * reading from a client pauses while too many of its commands are queued or too much of its output
+ * is still unsent.
+ * All connections share one {@link DookiBot}. Each connection is a session of a {@link SessionExecutor},
+ * so commands run off the event loop and a slow command only holds up its own connection.
+ * Long responses such as task listings are sent in parts as they are rendered; a session producing
+ * them waits whenever too much of its output is still unsent.
+ */
+public class DookiServer implements Closeable {
+    public static final int DEFAULT_PORT = 4242;
+    public static final String END_OF_RESPONSE = ".";
+    private static final int READ_BUFFER_BYTES = 8 * 1024;
+    private static final int MAX_LINE_BYTES = 1024 * 1024;
+    private static final int MAX_PENDING_OUTPUT_BYTES = 4 * 1024 * 1024;
+    private static final int MAX_IN_FLIGHT_COMMANDS = 1024;
+    private static final int MAX_UNSENT_PART_CHARS = 1024 * 1024;
+
+    private final DookiBot dookiBot;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final SessionExecutor sessionExecutor;
+    private final ConcurrentLinkedQueue<Connection> answered = new ConcurrentLinkedQueue<>();
+    private volatile boolean isRunning;
+
+    /**
+     * Binds the server to the given address. Call {@link #serve()} to start accepting clients.
+     * @param dookiBot Bot that all connections share.
+     * @param address Address to listen on; use port 0 to pick a free port.
+     * @throws IOException If the address cannot be bound.
+     */
+    public DookiServer(DookiBot dookiBot, InetSocketAddress address) throws IOException {
+        assert dookiBot != null : "DookiBot must not be null";
+        this.dookiBot = dookiBot;
+        this.sessionExecutor = new SessionExecutor(dookiBot);
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        this.serverChannel.bind(address);
+        this.serverChannel.configureBlocking(false);
+        this.serverChannel.register(this.selector, SelectionKey.OP_ACCEPT);
+        this.isRunning = true;
+    }
+
+    public int getPort() {
+        return this.serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Runs the event loop on the calling thread until {@link #close()} is called.
+     * @throws IOException If the selector fails.
+     */
+    public void serve() throws IOException {
+        try {
+            while (this.isRunning) {
+                this.selector.select();
+                Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    handle(key);
+                }
+                deliverAnswers();
+            }
+        } catch (ClosedSelectorException e) {
+            // close() was called while selecting.
+        } finally {
+            closeAll();
+        }
+    }
+
+    /**
+     * Stops the event loop and disconnects every client.
+     */
+    @Override
+    public void close() {
+        this.isRunning = false;
+        this.selector.wakeup();
+    }
+
+    private void handle(SelectionKey key) {
+        try {
+            if (!key.isValid()) {
+                return;
+            }
+            if (key.isAcceptable()) {
+                accept();
+                return;
+            }
+            Connection connection = (Connection) key.attachment();
+            if (key.isReadable()) {
+                connection.read();
+            }
+            if (key.isValid() && key.isWritable()) {
+                connection.write();
+            }
+        } catch (IOException e) {
+            disconnect(key);
+        }
+    }
+
+    /**
+     * Sends the responses that session threads have produced since the last pass.
+     */
+    private void deliverAnswers() {
+        Connection connection;
+        while ((connection = this.answered.poll()) != null) {
+            try {
+                connection.deliver();
+            } catch (IOException e) {
+                disconnect(connection.key);
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = this.serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        SelectionKey key = channel.register(this.selector, SelectionKey.OP_READ);
+        Connection connection = new Connection(channel, key);
+        key.attach(connection);
+        connection.respond(this.dookiBot.getWelcomeMessage());
+        connection.write();
+    }
+
+    private void closeAll() {
+        if (!this.selector.isOpen()) {
+            return;
+        }
+        for (SelectionKey key : this.selector.keys()) {
+            disconnect(key);
+        }
+        this.sessionExecutor.close();
+        try {
+            this.serverChannel.close();
+            this.selector.close();
+        } catch (IOException e) {
+            System.out.println("Something went wrong while stopping the server: " + e.getMessage());
+        }
+    }
+
+    private static void disconnect(SelectionKey key) {
+        if (key.attachment() instanceof Connection connection) {
+            connection.session.close();
+            connection.releaseSession();
+        }
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            // Already disconnected.
+        }
+    }
+
+    /**
+     * A piece of a response handed from a session thread to the event loop.
+     */
+    private static class Part {
+        private final String text;
+        private final boolean isFinal;
+
+        Part(String text, boolean isFinal) {
+            this.text = text;
+            this.isFinal = isFinal;
+        }
+    }
+
+    /**
+     * Per-client state: partially received request bytes, the client's session, responses handed
+     * back by the session thread, and response bytes not yet sent.
+     * Everything except {@link #responses}, {@link #isExited} and the unsent part budget is only touched
+     * by the event loop.
+     */
+    private class Connection implements SessionExecutor.StreamingResponseListener {
+        private final SocketChannel channel;
+        private final SelectionKey key;
+        private final SessionExecutor.Session session;
+        private final ConcurrentLinkedQueue<Part> responses = new ConcurrentLinkedQueue<>();
+        private final ArrayDeque<ByteBuffer> output = new ArrayDeque<>();
+        // Characters of non-final parts behind each output buffer, returned to the budget once it is sent.
+        private final ArrayDeque<Integer> outputPartChars = new ArrayDeque<>();
+        private final Object partBudget = new Object();
+        private ByteBuffer input = ByteBuffer.allocate(READ_BUFFER_BYTES);
+        private long pendingOutputBytes;
+        private int inFlightCommands;
+        private boolean isClosing;
+        private boolean isAtLineStart = true;
+        private volatile boolean isExited;
+        // Guarded by partBudget.
+        private long unsentPartChars;
+        private boolean isReleased;
+
+        Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+            this.session = DookiServer.this.sessionExecutor.open(this);
+        }
+
+        /**
+         * Called on the session thread; waits while too much streamed output is unsent, then hands the
+         * part to the event loop. Parts for a client that has gone are dropped.
+         */
+        @Override
+        public void onPartialResponse(String part) throws InterruptedException {
+            synchronized (this.partBudget) {
+                while (this.unsentPartChars >= MAX_UNSENT_PART_CHARS && !this.isReleased) {
+                    this.partBudget.wait();
+                }
+                if (this.isReleased) {
+                    return;
+                }
+                this.unsentPartChars += part.length();
+            }
+            hand(new Part(part, false));
+        }
+
+        /**
+         * Called on the session thread; hands the response's final piece to the event loop.
+         */
+        @Override
+        public void onResponse(String response, boolean isExit) {
+            if (isExit) {
+                this.isExited = true;
+            }
+            hand(new Part(response, true));
+        }
+
+        private void hand(Part part) {
+            this.responses.add(part);
+            DookiServer.this.answered.add(this);
+            DookiServer.this.selector.wakeup();
+        }
+
+        /**
+         * Stops the session from waiting for output that will never be sent.
+         */
+        void releaseSession() {
+            synchronized (this.partBudget) {
+                this.isReleased = true;
+                this.partBudget.notifyAll();
+            }
+        }
+
+        void deliver() throws IOException {
+            Part part;
+            while ((part = this.responses.poll()) != null) {
+                if (part.isFinal) {
+                    this.inFlightCommands--;
+                }
+                frame(part.text, part.isFinal, part.isFinal ? 0 : part.text.length());
+            }
+            if (this.isExited) {
+                // Only this client is leaving; the shared bot keeps serving everyone else.
+                this.isClosing = true;
+            }
+            if (this.key.isValid()) {
+                write();
+            }
+        }
+
+        void read() throws IOException {
+            int read = this.channel.read(this.input);
+            if (read < 0) {
+                this.isClosing = true;
+                write();
+                return;
+            }
+            processLines();
+            if (!this.input.hasRemaining()) {
+                growInput();
+            }
+            write();
+        }
+
+        /**
+         * Answers every complete line in the input buffer, keeping any trailing partial line.
+         */
+        private void processLines() {
+            this.input.flip();
+            int lineStart = this.input.position();
+            for (int i = lineStart; i < this.input.limit() && !this.isClosing; i++) {
+                if (this.input.get(i) != '\n') {
+                    continue;
+                }
+                int lineEnd = i > lineStart && this.input.get(i - 1) == '\r' ? i - 1 : i;
+                byte[] bytes = new byte[lineEnd - lineStart];
+                this.input.get(lineStart, bytes);
+                lineStart = i + 1;
+                this.inFlightCommands++;
+                this.session.submit(new String(bytes, StandardCharsets.UTF_8));
+            }
+            this.input.position(lineStart);
+            this.input.compact();
+        }
+
+        private void growInput() throws IOException {
+            if (this.input.capacity() >= MAX_LINE_BYTES) {
+                throw new IOException("Request line is too long");
+            }
+            ByteBuffer larger = ByteBuffer.allocate(Math.min(MAX_LINE_BYTES, this.input.capacity() * 2));
+            this.input.flip();
+            larger.put(this.input);
+            this.input = larger;
+        }
+
+        void respond(String response) {
+            frame(response, true, 0);
+        }
+
+        /**
+         * Queues a piece of a response for sending, dot-stuffing lines that start with a dot; lines may
+         * span pieces. The final piece is followed by the end-of-response line.
+         */
+        private void frame(String text, boolean isFinal, int partChars) {
+            StringBuilder framed = new StringBuilder(text.length() + 8);
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (this.isAtLineStart && c == END_OF_RESPONSE.charAt(0)) {
+                    framed.append(END_OF_RESPONSE);
+                }
+                framed.append(c);
+                this.isAtLineStart = c == '\n';
+            }
+            if (isFinal) {
+                framed.append('\n').append(END_OF_RESPONSE).append('\n');
+                this.isAtLineStart = true;
+            }
+            ByteBuffer bytes = StandardCharsets.UTF_8.encode(framed.toString());
+            this.pendingOutputBytes += bytes.remaining();
+            this.output.add(bytes);
+            this.outputPartChars.add(partChars);
+        }
+
+        void write() throws IOException {
+            while (!this.output.isEmpty()) {
+                ByteBuffer head = this.output.peek();
+                int written = this.channel.write(head);
+                this.pendingOutputBytes -= written;
+                if (head.hasRemaining()) {
+                    break;
+                }
+                this.output.poll();
+                returnPartChars(this.outputPartChars.poll());
+            }
+            updateInterest();
+            finishIfDrained();
+        }
+
+        /**
+         * Waits for writability while output is pending, and stops reading while too much is pending.
+         */
+        private void updateInterest() {
+            if (!this.key.isValid()) {
+                return;
+            }
+            int ops = 0;
+            if (!this.isClosing && this.pendingOutputBytes < MAX_PENDING_OUTPUT_BYTES
+                    && this.inFlightCommands < MAX_IN_FLIGHT_COMMANDS) {
+                ops |= SelectionKey.OP_READ;
+            }
+            if (!this.output.isEmpty()) {
+                ops |= SelectionKey.OP_WRITE;
+            }
+            this.key.interestOps(ops);
+        }
+
+        private void returnPartChars(int partChars) {
+            if (partChars == 0) {
+                return;
+            }
+            synchronized (this.partBudget) {
+                this.unsentPartChars -= partChars;
+                this.partBudget.notifyAll();
+            }
+        }
+
+        private void finishIfDrained() {
+            boolean isAnswered = this.isExited || this.inFlightCommands == 0;
+            if (this.isClosing && isAnswered && this.output.isEmpty()) {
+                disconnect(this.key);
+            }
+        }
+    }
+}
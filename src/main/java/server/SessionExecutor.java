@@ -0,0 +1,291 @@
+package server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import dooki.DookiBot;
+import dooki.DookiSession;
+
+/**
+ * Runs each session's commands in order on a thread of its own, over one shared {@link DookiBot}.
+ * On runtimes with virtual threads each session gets a virtual thread, so thousands of mostly idle
+ * sessions cost little more than their queues; elsewhere each session gets a daemon platform thread.
+ */
+public class SessionExecutor implements Closeable {
+    // Streamed responses are handed over in parts of about this many characters.
+    private static final int PART_CHARS = 16 * 1024;
+    // How long close() waits for the sessions to answer what they have queued before interrupting them.
+    private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+    private static final ThreadFactory VIRTUAL_THREAD_FACTORY = findVirtualThreadFactory();
+    // Compared by identity, so no command a client sends can be mistaken for it.
+    private static final String STOP = new String("stop");
+
+    private final DookiBot dookiBot;
+    private final ThreadFactory threadFactory;
+    private final boolean isVirtual;
+    private final Set<Session> sessions = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Callback receiving each response of a session, on the session's thread.
+     */
+    public interface ResponseListener {
+        /**
+         * Handles the response to one command.
+         * @param response The bot's response.
+         * @param isExit Whether the command ended the session.
+         */
+        void onResponse(String response, boolean isExit);
+    }
+
+    /**
+     * Callback that receives long responses, such as task listings, in parts while they are rendered.
+     * Each response arrives as zero or more parts followed by its final piece in
+     * {@link #onResponse(String, boolean)}; concatenated, they form the whole response.
+     */
+    public interface StreamingResponseListener extends ResponseListener {
+        /**
+         * Handles a part of the response being rendered. May block to hold back a session that
+         * produces output faster than it can be sent.
+         * @param part The next part of the response.
+         * @throws InterruptedException If the session's thread is interrupted while waiting.
+         */
+        void onPartialResponse(String part) throws InterruptedException;
+    }
+
+    /**
+     * Creates an executor that uses virtual threads when the runtime has them.
+     * @param dookiBot Bot that all sessions share.
+     */
+    public SessionExecutor(DookiBot dookiBot) {
+        this(dookiBot, true);
+    }
+
+    /**
+     * Creates an executor.
+     * @param dookiBot Bot that all sessions share.
+     * @param isVirtualPreferred Whether to use virtual threads when the runtime has them.
+     */
+    public SessionExecutor(DookiBot dookiBot, boolean isVirtualPreferred) {
+        assert dookiBot != null : "DookiBot must not be null";
+        this.dookiBot = dookiBot;
+        this.isVirtual = isVirtualPreferred && VIRTUAL_THREAD_FACTORY != null;
+        this.threadFactory = this.isVirtual ? VIRTUAL_THREAD_FACTORY : new PlatformThreadFactory();
+    }
+
+    /**
+     * Whether the running JVM supports virtual threads.
+     * @return true if {@code Thread.ofVirtual()} is available.
+     */
+    public static boolean isVirtualThreadSupported() {
+        return VIRTUAL_THREAD_FACTORY != null;
+    }
+
+    public boolean isVirtual() {
+        return this.isVirtual;
+    }
+
+    public int getSessionCount() {
+        return this.sessions.size();
+    }
+
+    /**
+     * Opens a session and starts its thread.
+     * @param listener Receives the session's responses in command order.
+     * @return the session, ready to accept commands.
+     */
+    public Session open(ResponseListener listener) {
+        assert listener != null : "Listener must not be null";
+        Session session = new Session(listener);
+        this.sessions.add(session);
+        session.thread.start();
+        return session;
+    }
+
+    /**
+     * Closes every open session and waits for their threads to finish, so that no command runs on the
+     * bot once this returns. Commands already queued are still answered if they finish within a few
+     * seconds; sessions still running after that are interrupted.
+     */
+    @Override
+    public void close() {
+        List<Session> closing = new ArrayList<>(this.sessions);
+        for (Session session : closing) {
+            session.close();
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CLOSE_TIMEOUT_MILLIS);
+        boolean isInterrupted = false;
+        for (Session session : closing) {
+            if (session.thread == Thread.currentThread()) {
+                // Closed from one of its own listeners; the session stops once the listener returns.
+                continue;
+            }
+            try {
+                long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                session.thread.join(Math.max(remainingMillis, 1));
+                if (session.thread.isAlive()) {
+                    session.thread.interrupt();
+                    session.thread.join(CLOSE_TIMEOUT_MILLIS);
+                }
+            } catch (InterruptedException e) {
+                isInterrupted = true;
+            }
+        }
+        if (isInterrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Looks up {@code Thread.ofVirtual().factory()} reflectively, as the build targets Java 17.
+     */
+    private static ThreadFactory findVirtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Method name = Class.forName("java.lang.Thread$Builder").getMethod("name", String.class, long.class);
+            builder = name.invoke(builder, "dooki-session-", 0L);
+            Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+            return (ThreadFactory) factory.invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static class PlatformThreadFactory implements ThreadFactory {
+        private final AtomicLong count = new AtomicLong();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "dooki-session-" + this.count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    /**
+     * One conversation: a queue of commands drained in order by the session's thread.
+     */
+    public class Session {
+        private final DookiSession state = SessionExecutor.this.dookiBot.newSession();
+        private final LinkedBlockingQueue<String> commands = new LinkedBlockingQueue<>();
+        private final ResponseListener listener;
+        private final Thread thread;
+
+        private Session(ResponseListener listener) {
+            this.listener = listener;
+            this.thread = SessionExecutor.this.threadFactory.newThread(this::run);
+        }
+
+        /**
+         * Queues a command without waiting for it to run.
+         * Commands queued after one that ends the session are discarded.
+         * @param command A single command line.
+         */
+        public void submit(String command) {
+            assert command != null : "Command must not be null";
+            this.commands.add(command);
+        }
+
+        /**
+         * Stops the session's thread once the commands already queued have been answered.
+         */
+        public void close() {
+            this.commands.add(STOP);
+        }
+
+        private void run() {
+            try {
+                while (true) {
+                    String command = this.commands.take();
+                    if (command == STOP) {
+                        return;
+                    }
+                    String response = this.respond(command);
+                    boolean isExit = this.state.shouldExit();
+                    this.listener.onResponse(response, isExit);
+                    if (isExit) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException | InterruptedIOException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                SessionExecutor.this.sessions.remove(this);
+            }
+        }
+
+        private String respond(String command) throws InterruptedIOException {
+            if (!(this.listener instanceof StreamingResponseListener streaming)) {
+                return SessionExecutor.this.dookiBot.getResponse(this.state, command);
+            }
+            PartWriter writer = new PartWriter(streaming);
+            try {
+                SessionExecutor.this.dookiBot.writeResponse(this.state, command, writer);
+            } catch (InterruptedIOException e) {
+                throw e;
+            } catch (IOException e) {
+                throw new AssertionError("Only interruption can fail a part writer", e);
+            }
+            return writer.finish();
+        }
+    }
+
+    /**
+     * Collects a response as it is written and passes it on to a listener in parts.
+     */
+    private static class PartWriter implements Appendable {
+        private final StreamingResponseListener listener;
+        private final StringBuilder buffer = new StringBuilder();
+
+        PartWriter(StreamingResponseListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public Appendable append(CharSequence csq) throws IOException {
+            this.buffer.append(csq);
+            return this.passOnIfFull();
+        }
+
+        @Override
+        public Appendable append(CharSequence csq, int start, int end) throws IOException {
+            this.buffer.append(csq, start, end);
+            return this.passOnIfFull();
+        }
+
+        @Override
+        public Appendable append(char c) throws IOException {
+            this.buffer.append(c);
+            return this.passOnIfFull();
+        }
+
+        /**
+         * Returns what has not been passed on yet, i.e. the response's final piece.
+         */
+        String finish() {
+            return this.buffer.toString();
+        }
+
+        private Appendable passOnIfFull() throws IOException {
+            if (this.buffer.length() >= PART_CHARS) {
+                String part = this.buffer.toString();
+                this.buffer.setLength(0);
+                try {
+                    this.listener.onPartialResponse(part);
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException("Interrupted while passing on a response");
+                }
+            }
+            return this;
+        }
+    }
+}
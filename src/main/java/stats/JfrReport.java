@@ -0,0 +1,115 @@
+package stats;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Summarises Dooki's events in a flight recording: latency per command, and the time spent loading,
+ * saving and rebuilding indexes. Record with {@code -XX:StartFlightRecording=filename=dooki.jfr}, then run
+ * {@code ./gradlew jfrReport -PjfrFile=dooki.jfr}.
+ */
+public class JfrReport {
+    private static final String COMMAND_EVENT = "dooki.Command";
+    private static final String LOAD_EVENT = "dooki.StorageLoad";
+    private static final String SAVE_EVENT = "dooki.StorageSave";
+    private static final String INDEX_EVENT = "dooki.IndexRebuild";
+    private static final double NANOS_PER_MICRO = 1_000.0;
+
+    /**
+     * Latencies and outcomes of one kind of event.
+     */
+    private static class Summary {
+        private final LatencyHistogram latencies = new LatencyHistogram();
+        private long errors;
+        private long bytes;
+    }
+
+    /**
+     * Prints the report for the recording named by the first argument.
+     * @param args path of a {@code .jfr} file.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.out.println("Usage: JfrReport RECORDING.jfr");
+            return;
+        }
+        System.out.println(summarize(Path.of(args[0])));
+    }
+
+    /**
+     * Reads a recording and describes p50, p99 and max latency of each command and storage operation.
+     * @param recording Path of a {@code .jfr} file.
+     * @return a multi-line report.
+     * @throws IOException If the recording cannot be read.
+     */
+    public static String summarize(Path recording) throws IOException {
+        Map<String, Summary> commands = new TreeMap<>();
+        Map<String, Summary> operations = new TreeMap<>();
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                switch (event.getEventType().getName()) {
+                case COMMAND_EVENT:
+                    Summary command = add(commands, event.getString("command"), event);
+                    if (!"ok".equals(event.getString("outcome"))) {
+                        command.errors++;
+                    }
+                    break;
+                case LOAD_EVENT:
+                    Summary load = add(operations, "load", event);
+                    load.errors += event.getInt("parseErrors");
+                    load.bytes += event.getLong("fileSize");
+                    break;
+                case SAVE_EVENT:
+                    add(operations, "save " + event.getString("kind"), event).bytes += event.getLong("bytes");
+                    break;
+                case INDEX_EVENT:
+                    add(operations, "rebuild " + event.getString("index"), event);
+                    break;
+                default:
+                    break;
+                }
+            }
+        }
+
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%-20s %8s %8s %12s %12s %12s%n", "command", "count", "errors",
+                "p50 (us)", "p99 (us)", "max (us)"));
+        appendRows(report, commands);
+        report.append(String.format("%n%-20s %8s %8s %12s %12s %12s %12s%n", "storage and indexes", "count",
+                "errors", "p50 (us)", "p99 (us)", "max (us)", "bytes"));
+        for (Map.Entry<String, Summary> entry : operations.entrySet()) {
+            appendRow(report, entry.getKey(), entry.getValue());
+            report.append(String.format(" %12d%n", entry.getValue().bytes));
+        }
+        if (commands.isEmpty() && operations.isEmpty()) {
+            report.append("No Dooki events found in ").append(recording).append(System.lineSeparator());
+        }
+        return report.toString();
+    }
+
+    private static Summary add(Map<String, Summary> summaries, String key, RecordedEvent event) {
+        Summary summary = summaries.computeIfAbsent(key, k -> new Summary());
+        summary.latencies.record(event.getDuration().toNanos());
+        return summary;
+    }
+
+    private static void appendRows(StringBuilder report, Map<String, Summary> summaries) {
+        for (Map.Entry<String, Summary> entry : summaries.entrySet()) {
+            appendRow(report, entry.getKey(), entry.getValue());
+            report.append(System.lineSeparator());
+        }
+    }
+
+    private static void appendRow(StringBuilder report, String key, Summary summary) {
+        LatencyHistogram latencies = summary.latencies;
+        report.append(String.format("%-20s %8d %8d %12.1f %12.1f %12.1f", key, latencies.getCount(), summary.errors,
+                latencies.getPercentile(50) / NANOS_PER_MICRO, latencies.getPercentile(99) / NANOS_PER_MICRO,
+                latencies.getMax() / NANOS_PER_MICRO));
+    }
+}
@@ -0,0 +1,324 @@
+package stats;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Process-wide latency histograms and counters for Dooki's commands.
+ * Each command is split into phases: parsing it, running it against the task list, and persisting the change.
+ * Recording is off unless started with {@code -Ddooki.stats=true}, the {@code stats on} command or JMX;
+ * while it is off, each hook costs one volatile read.
+ * The phases of a command are timed on the thread running it, so hooks called elsewhere only count towards
+ * the totals, such as storage writes made by the background writer.
+ */
+public final class Stats {
+    public static final String OBJECT_NAME = "dooki:type=Stats";
+    /** Returned by the timers while recording is off. */
+    public static final long NOT_TIMED = Long.MIN_VALUE;
+
+    /**
+     * Phases that a command's latency is split into.
+     */
+    public enum Phase {
+        TOTAL("total"),
+        PARSE("parse"),
+        TASKS("tasks"),
+        PERSIST("persist");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return this.label;
+        }
+    }
+
+    private static final double NANOS_PER_MICRO = 1_000.0;
+    private static final ConcurrentHashMap<String, LatencyHistogram[]> COMMANDS = new ConcurrentHashMap<>();
+    private static final LatencyHistogram STORAGE_WRITES = new LatencyHistogram();
+    private static final LongAdder PERSIST_CALLS = new LongAdder();
+    private static final LongAdder BYTES_WRITTEN = new LongAdder();
+    private static final LongAdder LINES_PARSED = new LongAdder();
+    // Per thread: when its command started, when parsing ended, and the time spent persisting so far.
+    private static final ThreadLocal<long[]> CLOCK = ThreadLocal.withInitial(() -> new long[3]);
+    private static volatile boolean isEnabled = Boolean.getBoolean("dooki.stats");
+    private static boolean isRegistered = false;
+
+    private Stats() {
+    }
+
+    public static boolean isEnabled() {
+        return isEnabled;
+    }
+
+    public static void setEnabled(boolean isEnabled) {
+        Stats.isEnabled = isEnabled;
+    }
+
+    /**
+     * Checks whether a value from {@link #startCommand()} or {@link #startTimer()} is a real start time.
+     */
+    public static boolean isTimed(long start) {
+        return start != NOT_TIMED;
+    }
+
+    /**
+     * Starts timing a command on the calling thread.
+     * @return the start time to pass to {@link #finishCommand(String, long)}, or {@link #NOT_TIMED}.
+     */
+    public static long startCommand() {
+        if (!isEnabled) {
+            return NOT_TIMED;
+        }
+        long now = System.nanoTime();
+        long[] clock = CLOCK.get();
+        clock[0] = now;
+        clock[1] = now;
+        clock[2] = 0;
+        return now;
+    }
+
+    /**
+     * Marks the end of the current command's parse phase; everything until the command finishes,
+     * apart from persisting, counts as running it. Calling it again moves the mark.
+     */
+    public static void markParsed() {
+        if (isEnabled) {
+            CLOCK.get()[1] = System.nanoTime();
+        }
+    }
+
+    /**
+     * Starts timing a phase or a storage write.
+     * @return the start time, or {@link #NOT_TIMED}.
+     */
+    public static long startTimer() {
+        return isEnabled ? System.nanoTime() : NOT_TIMED;
+    }
+
+    /**
+     * Adds the time since {@code start} to the current command's persist phase and counts a persist call.
+     */
+    public static void addPersistTime(long start) {
+        if (isTimed(start)) {
+            CLOCK.get()[2] += System.nanoTime() - start;
+            PERSIST_CALLS.increment();
+        }
+    }
+
+    /**
+     * Records a write to the save file or journal.
+     * @param start Value from {@link #startTimer()}.
+     * @param bytes Number of bytes written.
+     */
+    public static void recordWrite(long start, long bytes) {
+        if (isTimed(start)) {
+            STORAGE_WRITES.record(System.nanoTime() - start);
+            BYTES_WRITTEN.add(bytes);
+        }
+    }
+
+    /**
+     * Counts lines read from the save file or journal.
+     */
+    public static void countLinesParsed(long lines) {
+        if (isEnabled) {
+            LINES_PARSED.add(lines);
+        }
+    }
+
+    /**
+     * Records the phases of the command started on this thread.
+     * @param command Command word. Callers must only pass words from a fixed set, as each gets its own histograms.
+     * @param start Value from {@link #startCommand()}.
+     */
+    public static void finishCommand(String command, long start) {
+        if (!isTimed(start)) {
+            return;
+        }
+        long[] clock = CLOCK.get();
+        assert clock[0] == start : "Commands on one thread should not overlap";
+        long total = System.nanoTime() - start;
+        long parse = clock[1] - start;
+        long persist = clock[2];
+        LatencyHistogram[] histograms = histogramsOf(command);
+        histograms[Phase.TOTAL.ordinal()].record(total);
+        histograms[Phase.PARSE.ordinal()].record(parse);
+        histograms[Phase.TASKS.ordinal()].record(total - parse - persist);
+        histograms[Phase.PERSIST.ordinal()].record(persist);
+    }
+
+    private static LatencyHistogram[] histogramsOf(String command) {
+        return COMMANDS.computeIfAbsent(command, word -> {
+            LatencyHistogram[] histograms = new LatencyHistogram[Phase.values().length];
+            for (int i = 0; i < histograms.length; i++) {
+                histograms[i] = new LatencyHistogram();
+            }
+            return histograms;
+        });
+    }
+
+    /**
+     * Returns a latency percentile of one phase of one command.
+     * @return the latency in nanoseconds, or 0 if the command has not been recorded.
+     */
+    public static long getLatency(String command, Phase phase, double percentile) {
+        LatencyHistogram[] histograms = COMMANDS.get(command);
+        return histograms == null ? 0 : histograms[phase.ordinal()].getPercentile(percentile);
+    }
+
+    /**
+     * Returns the number of commands recorded.
+     */
+    public static long getCommandCount() {
+        long count = 0;
+        for (LatencyHistogram[] histograms : COMMANDS.values()) {
+            count += histograms[Phase.TOTAL.ordinal()].getCount();
+        }
+        return count;
+    }
+
+    public static long getPersistCalls() {
+        return PERSIST_CALLS.sum();
+    }
+
+    public static long getBytesWritten() {
+        return BYTES_WRITTEN.sum();
+    }
+
+    public static long getLinesParsed() {
+        return LINES_PARSED.sum();
+    }
+
+    /**
+     * Forgets every recorded latency and count.
+     */
+    public static void reset() {
+        COMMANDS.clear();
+        STORAGE_WRITES.reset();
+        PERSIST_CALLS.reset();
+        BYTES_WRITTEN.reset();
+        LINES_PARSED.reset();
+    }
+
+    /**
+     * Describes p50, p99 and max of every phase of every command recorded, in microseconds, plus the counters.
+     * @return a multi-line report.
+     */
+    public static String report() {
+        StringBuilder report = new StringBuilder();
+        report.append("Recording is ").append(isEnabled ? "on" : "off")
+                .append(". Latencies are p50 / p99 / max in microseconds.");
+        Map<String, LatencyHistogram[]> sorted = new TreeMap<>(COMMANDS);
+        if (sorted.isEmpty()) {
+            report.append("\nNo commands recorded yet.");
+        }
+        for (Map.Entry<String, LatencyHistogram[]> entry : sorted.entrySet()) {
+            LatencyHistogram[] histograms = entry.getValue();
+            report.append("\n").append(entry.getKey()).append(" (")
+                    .append(histograms[Phase.TOTAL.ordinal()].getCount()).append(" runs)");
+            for (Phase phase : Phase.values()) {
+                report.append("\n  ").append(phase.getLabel()).append(' ');
+                appendLatencies(report, histograms[phase.ordinal()]);
+            }
+        }
+        report.append("\nStorage writes (").append(STORAGE_WRITES.getCount()).append(") ");
+        appendLatencies(report, STORAGE_WRITES);
+        report.append("\nPersist calls: ").append(getPersistCalls())
+                .append(", bytes written: ").append(getBytesWritten())
+                .append(", lines parsed: ").append(getLinesParsed());
+        return report.toString();
+    }
+
+    private static void appendLatencies(StringBuilder report, LatencyHistogram histogram) {
+        report.append(formatMicros(histogram.getPercentile(50))).append(" / ")
+                .append(formatMicros(histogram.getPercentile(99))).append(" / ")
+                .append(formatMicros(histogram.getMax()));
+    }
+
+    private static String formatMicros(long nanos) {
+        return String.format("%.1f", nanos / NANOS_PER_MICRO);
+    }
+
+    /**
+     * Makes the stats readable over JMX. Later calls do nothing.
+     */
+    public static synchronized void registerMBean() {
+        if (isRegistered) {
+            return;
+        }
+        isRegistered = true;
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new Bean(), new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // Registered by another class loader, e.g. in tests; that copy is as good as ours.
+        } catch (JMException e) {
+            System.out.println("Something went wrong while publishing stats over JMX: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Forwards JMX calls to the static stats.
+     */
+    private static class Bean implements StatsMXBean {
+        @Override
+        public boolean isEnabled() {
+            return Stats.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(boolean isEnabled) {
+            Stats.setEnabled(isEnabled);
+        }
+
+        @Override
+        public long getCommandCount() {
+            return Stats.getCommandCount();
+        }
+
+        @Override
+        public long getPersistCalls() {
+            return Stats.getPersistCalls();
+        }
+
+        @Override
+        public long getBytesWritten() {
+            return Stats.getBytesWritten();
+        }
+
+        @Override
+        public long getLinesParsed() {
+            return Stats.getLinesParsed();
+        }
+
+        @Override
+        public String getReport() {
+            return Stats.report();
+        }
+
+        @Override
+        public double getLatencyMicros(String command, String phase, double percentile) {
+            for (Phase candidate : Phase.values()) {
+                if (candidate.getLabel().equals(phase)) {
+                    return Stats.getLatency(command, candidate, percentile) / NANOS_PER_MICRO;
+                }
+            }
+            throw new IllegalArgumentException("Unknown phase '" + phase + "'");
+        }
+
+        @Override
+        public void reset() {
+            Stats.reset();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package stats;
+
+/**
+ * JMX view of {@link Stats}, registered as {@value Stats#OBJECT_NAME}.
+ */
+public interface StatsMXBean {
+    boolean isEnabled();
+
+    void setEnabled(boolean isEnabled);
+
+    long getCommandCount();
+
+    long getPersistCalls();
+
+    long getBytesWritten();
+
+    long getLinesParsed();
+
+    /**
+     * Returns the same report as the {@code stats} command.
+     */
+    String getReport();
+
+    /**
+     * Returns a latency percentile of one phase of one command.
+     * @param command Command word, e.g. {@code "list"}.
+     * @param phase One of {@code total}, {@code parse}, {@code tasks} and {@code persist}.
+     * @param percentile Percentile between 0 and 100.
+     * @return the latency in microseconds, or 0 if the command has not been recorded.
+     */
+    double getLatencyMicros(String command, String phase, double percentile);
+
+    /**
+     * Forgets every recorded latency and count.
+     */
+    void reset();
+}
@@ -0,0 +1,255 @@
+package storage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import tasks.Task;
+
+/**
+ * Persists task list mutations on a single background thread.
+ * Mutations submitted within one write window (or until enough of them pile up) are coalesced
+ * into one journal append, or one snapshot write when the storage is not journaled.
+ */
+public class AsyncStorageWriter {
+    public static final long DEFAULT_WINDOW_MILLIS = 50;
+    public static final int DEFAULT_MAX_PENDING = 64;
+
+    /**
+     * A copy of the task list, tagged with the number of mutations submitted when it was taken.
+     */
+    public static class Snapshot {
+        private final List<Task> tasks;
+        private final long sequence;
+
+        /**
+         * Captures a snapshot of the task list.
+         * @param tasks Copy of the task list.
+         * @param sequence Number of mutations submitted to the writer that {@code tasks} already reflects.
+         */
+        public Snapshot(List<Task> tasks, long sequence) {
+            this.tasks = tasks;
+            this.sequence = sequence;
+        }
+    }
+
+    private final Storage storage;
+    private final Supplier<Snapshot> snapshotSource;
+    private final long windowMillis;
+    private final int maxPending;
+    private final Object lock = new Object();
+    private final Thread writerThread;
+
+    private List<JournalEntry> pending = new ArrayList<>();
+    private long submittedCount;
+    private long writtenCount;
+    private boolean isFlushRequested;
+    private boolean isSnapshotRequested;
+    private boolean isClosed;
+    private boolean isStopped;
+
+    /**
+     * Starts a background writer for the given storage.
+     * The snapshot source must be safe to call from the writer thread, and must read
+     * {@link #getSubmittedCount()} atomically with copying the task list.
+     * @param storage Storage to persist to.
+     * @param snapshotSource Produces consistent copies of the task list.
+     * @param windowMillis How long to wait for further mutations before writing.
+     * @param maxPending Number of pending mutations that triggers a write before the window ends.
+     */
+    public AsyncStorageWriter(Storage storage, Supplier<Snapshot> snapshotSource, long windowMillis, int maxPending) {
+        assert storage != null : "Storage must not be null";
+        assert snapshotSource != null : "Snapshot source must not be null";
+        assert windowMillis >= 0 : "Write window must not be negative";
+        assert maxPending > 0 : "Max pending mutations must be positive";
+        this.storage = storage;
+        this.snapshotSource = snapshotSource;
+        this.windowMillis = windowMillis;
+        this.maxPending = maxPending;
+        this.writerThread = new Thread(this::runWriter, "dooki-storage-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Queues a mutation that has just been applied to the task list.
+     * @param entry The mutation.
+     */
+    public void submit(JournalEntry entry) {
+        assert entry != null : "Journal entry must not be null";
+        synchronized (this.lock) {
+            if (this.isClosed || this.isStopped) {
+                throw new IllegalStateException("Storage writer has been closed.");
+            }
+            this.pending.add(entry);
+            this.submittedCount++;
+            if (this.pending.size() == 1 || this.pending.size() >= this.maxPending) {
+                this.lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Reports how many mutations have been submitted so far.
+     *
+     * @return the number of submitted mutations.
+     */
+    public long getSubmittedCount() {
+        synchronized (this.lock) {
+            return this.submittedCount;
+        }
+    }
+
+    /**
+     * Queues a full snapshot write in place of journal entries, e.g. after many changes were applied
+     * without being submitted. Counts as one submitted mutation.
+     */
+    public void requestSnapshot() {
+        synchronized (this.lock) {
+            if (this.isClosed || this.isStopped) {
+                throw new IllegalStateException("Storage writer has been closed.");
+            }
+            // The snapshot is taken later, so it covers every entry still pending.
+            this.pending.clear();
+            this.isSnapshotRequested = true;
+            this.submittedCount++;
+            this.lock.notifyAll();
+        }
+    }
+
+    /**
+     * Blocks until every mutation submitted before this call has been written to disk.
+     */
+    public void flush() {
+        synchronized (this.lock) {
+            long target = this.submittedCount;
+            this.isFlushRequested = true;
+            this.lock.notifyAll();
+            boolean isInterrupted = false;
+            while (this.writtenCount < target && !this.isStopped) {
+                try {
+                    this.lock.wait();
+                } catch (InterruptedException e) {
+                    isInterrupted = true;
+                }
+            }
+            if (isInterrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Flushes outstanding mutations and stops the writer thread.
+     */
+    public void close() {
+        flush();
+        synchronized (this.lock) {
+            this.isClosed = true;
+            this.lock.notifyAll();
+        }
+        try {
+            this.writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runWriter() {
+        try {
+            writeBatches();
+        } finally {
+            synchronized (this.lock) {
+                this.isStopped = true;
+                this.lock.notifyAll();
+            }
+        }
+    }
+
+    private void writeBatches() {
+        while (true) {
+            List<JournalEntry> batch;
+            long batchEnd;
+            boolean isSnapshot;
+            synchronized (this.lock) {
+                if (!awaitBatch()) {
+                    return;
+                }
+                batch = this.pending;
+                batchEnd = this.submittedCount;
+                isSnapshot = this.isSnapshotRequested;
+                this.pending = new ArrayList<>();
+                this.isFlushRequested = false;
+                this.isSnapshotRequested = false;
+            }
+            long covered = isSnapshot ? writeSnapshot(batchEnd) : write(batch, batchEnd);
+            synchronized (this.lock) {
+                this.writtenCount = Math.max(this.writtenCount, covered);
+                dropCoveredEntries(covered);
+                this.lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Waits (holding the lock) until a batch is ready: the window has passed, enough mutations are
+     * pending, or a flush was requested.
+     *
+     * @return false if the writer was closed with nothing left to write.
+     */
+    private boolean awaitBatch() {
+        try {
+            while (this.pending.isEmpty() && !this.isSnapshotRequested) {
+                if (this.isClosed) {
+                    return false;
+                }
+                this.isFlushRequested = false;
+                this.lock.wait();
+            }
+            long deadline = System.currentTimeMillis() + this.windowMillis;
+            long remaining = this.windowMillis;
+            while (remaining > 0 && this.pending.size() < this.maxPending
+                    && !this.isFlushRequested && !this.isClosed) {
+                this.lock.wait(remaining);
+                remaining = deadline - System.currentTimeMillis();
+            }
+        } catch (InterruptedException e) {
+            // Write whatever is pending; close() is the only way to stop the writer.
+            Thread.interrupted();
+        }
+        return true;
+    }
+
+    /**
+     * Writes a batch of mutations.
+     *
+     * @return the number of submitted mutations that are now durable.
+     */
+    private long write(List<JournalEntry> batch, long batchEnd) {
+        if (this.storage.isJournaled()) {
+            this.storage.append(batch);
+            if (!this.storage.needsCompaction()) {
+                return batchEnd;
+            }
+        }
+        return writeSnapshot(batchEnd);
+    }
+
+    private long writeSnapshot(long batchEnd) {
+        Snapshot snapshot = this.snapshotSource.get();
+        this.storage.save(snapshot.tasks);
+        return Math.max(batchEnd, snapshot.sequence);
+    }
+
+    /**
+     * A snapshot may already include mutations that were submitted after the batch was taken.
+     * Those must not be appended again on top of the new snapshot.
+     */
+    private void dropCoveredEntries(long covered) {
+        long firstPending = this.submittedCount - this.pending.size() + 1;
+        int toDrop = (int) Math.min(this.pending.size(), Math.max(0, covered - firstPending + 1));
+        if (toDrop > 0) {
+            this.pending.subList(0, toDrop).clear();
+        }
+    }
+}
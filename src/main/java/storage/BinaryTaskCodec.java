@@ -0,0 +1,207 @@
+package storage;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import tasks.DeadlineTask;
+import tasks.EventTask;
+import tasks.Task;
+import tasks.TodoTask;
+
+/**
+ * Reads and writes the binary save format.
+ * Layout (big-endian): a header of magic {@code "DOOK"}, a 2-byte version, a 4-byte task count and
+ * an 8-byte next task id, followed by one record per task:
+ * - a type byte whose high bit is the done flag,
+ * - the 8-byte task id,
+ * - one (deadline) or two (event start and end) 8-byte epoch days,
+ * - a 4-byte length and the UTF-8 bytes of the description.
+ * Only this version is read; versions 1 and 2 were never released and are rejected rather than misread.
+ */
+public class BinaryTaskCodec {
+    public static final int MAGIC = 0x444F4F4B;
+    public static final short VERSION = 3;
+    private static final int HEADER_BYTES = 4 + 2 + 4 + 8;
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final byte TYPE_TODO = 1;
+    private static final byte TYPE_DEADLINE = 2;
+    private static final byte TYPE_EVENT = 3;
+    private static final byte DONE_BIT = (byte) 0x80;
+    private static final byte TYPE_MASK = 0x7F;
+
+    /**
+     * Checks whether the given file starts with the binary format's magic number.
+     * @param path The save file.
+     * @return true if the file is in the binary format.
+     * @throws IOException If the file cannot be read.
+     */
+    public static boolean isBinary(Path path) throws IOException {
+        if (!Files.exists(path) || Files.size(path) < 4) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+                // Keep reading until the magic number is complete.
+            }
+            return magic.getInt(0) == MAGIC;
+        }
+    }
+
+    /**
+     * Writes all tasks to the given file, replacing its contents.
+     * @param path The save file.
+     * @param tasks Tasks to write, in order.
+     * @param nextId The id the next new task will get.
+     * @throws IOException If the file cannot be written.
+     */
+    public void write(Path path, List<Task> tasks, long nextId) throws IOException {
+        assert tasks != null : "Tasks to write must not be null";
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+            buffer.putInt(MAGIC).putShort(VERSION).putInt(tasks.size()).putLong(nextId);
+            for (Task task : tasks) {
+                byte[] description = task.getDescription().getBytes(StandardCharsets.UTF_8);
+                int recordBytes = 1 + Long.BYTES + 2 * Long.BYTES + Integer.BYTES + description.length;
+                if (buffer.remaining() < recordBytes) {
+                    drain(channel, buffer);
+                }
+                ByteBuffer target = recordBytes > buffer.capacity() ? ByteBuffer.allocate(recordBytes) : buffer;
+                encode(task, description, target);
+                if (target != buffer) {
+                    drain(channel, target);
+                }
+            }
+            drain(channel, buffer);
+        }
+    }
+
+    private static void encode(Task task, byte[] description, ByteBuffer buffer) {
+        byte status = task.isDone() ? DONE_BIT : 0;
+        if (task instanceof DeadlineTask deadlineTask) {
+            buffer.put((byte) (TYPE_DEADLINE | status));
+            buffer.putLong(task.getId());
+            buffer.putLong(deadlineTask.getDeadline().toEpochDay());
+        } else if (task instanceof EventTask eventTask) {
+            buffer.put((byte) (TYPE_EVENT | status));
+            buffer.putLong(task.getId());
+            buffer.putLong(eventTask.getFrom().toEpochDay());
+            buffer.putLong(eventTask.getTo().toEpochDay());
+        } else {
+            buffer.put((byte) (TYPE_TODO | status));
+            buffer.putLong(task.getId());
+        }
+        buffer.putInt(description.length);
+        buffer.put(description);
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Reads every task from the given binary file.
+     * A corrupt record ends the read; the tasks before it are kept and the record is reported as an error,
+     * numbered by its position in the file.
+     * @param path The save file.
+     * @return the tasks read and any corrupt record.
+     * @throws IOException If the file cannot be read or is not in a supported version of the format.
+     */
+    public LoadResult read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Save file is too large to read: " + size + " bytes");
+            }
+            if (size < HEADER_BYTES) {
+                throw new IOException("Save file header is truncated");
+            }
+            // Copied rather than mapped: on Windows a live mapping stops the next save from rewriting the file.
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // Keep reading until the whole file is buffered.
+            }
+            buffer.flip();
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Save file is not in the binary format");
+            }
+            short version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported save file version " + version);
+            }
+            int count = buffer.getInt();
+            long nextId = buffer.getLong();
+            ArrayList<Task> tasks = new ArrayList<>(Math.max(0, count));
+            List<LoadResult.LineError> errors = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                try {
+                    tasks.add(decode(buffer));
+                } catch (BufferUnderflowException | IllegalArgumentException | DateTimeException e) {
+                    errors.add(new LoadResult.LineError(i + 1, "Task record is corrupt; "
+                            + (count - i) + " record(s) from here on were skipped"));
+                    break;
+                }
+            }
+            return new LoadResult(tasks, errors, count, nextId);
+        }
+    }
+
+    private static Task decode(ByteBuffer buffer) {
+        byte header = buffer.get();
+        long id = buffer.getLong();
+        if (id < 0) {
+            throw new IllegalArgumentException("Task id " + id + " is out of range");
+        }
+        Task task;
+        switch (header & TYPE_MASK) {
+        case TYPE_TODO:
+            task = new TodoTask(readDescription(buffer));
+            break;
+        case TYPE_DEADLINE: {
+            LocalDate deadline = LocalDate.ofEpochDay(buffer.getLong());
+            task = new DeadlineTask(readDescription(buffer), deadline);
+            break;
+        }
+        case TYPE_EVENT: {
+            LocalDate from = LocalDate.ofEpochDay(buffer.getLong());
+            LocalDate to = LocalDate.ofEpochDay(buffer.getLong());
+            task = new EventTask(readDescription(buffer), from, to);
+            break;
+        }
+        default:
+            throw new IllegalArgumentException("Unknown task type " + (header & TYPE_MASK));
+        }
+        if ((header & DONE_BIT) != 0) {
+            task.markDone();
+        }
+        if (id != Task.NO_ID) {
+            task.assignId(id);
+        }
+        return task;
+    }
+
+    private static String readDescription(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Description length " + length + " is out of range");
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
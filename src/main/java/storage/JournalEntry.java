@@ -0,0 +1,123 @@
+package storage;
+
+import tasks.Task;
+
+/**
+ * Describes a single mutation of the task list, as appended to Dooki's change journal.
+ * Entries are replayed in order on top of the last snapshot when tasks are loaded.
+ */
+public class JournalEntry {
+    /**
+     * Kinds of mutation that can be journaled.
+     */
+    public enum Op {
+        ADD('+'),
+        MARK('M'),
+        UNMARK('U'),
+        DELETE('X'),
+        SORT('S');
+
+        private final char code;
+
+        Op(char code) {
+            this.code = code;
+        }
+
+        public char getCode() {
+            return this.code;
+        }
+
+        /**
+         * Looks up the operation for the given journal code.
+         * @param code The leading character of a journal line.
+         * @return the matching operation, or null if the code is unknown.
+         */
+        public static Op fromCode(char code) {
+            for (Op op : values()) {
+                if (op.code == code) {
+                    return op;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final long[] NO_IDS = new long[0];
+
+    private final Op op;
+    private final Task task;
+    private final long[] ids;
+
+    private JournalEntry(Op op, Task task, long[] ids) {
+        this.op = op;
+        this.task = task;
+        this.ids = ids;
+    }
+
+    /**
+     * Records a task appended to the end of the list.
+     * @param task The added task.
+     * @return the journal entry.
+     */
+    public static JournalEntry add(Task task) {
+        assert task != null : "Journaled task must not be null";
+        return new JournalEntry(Op.ADD, task, NO_IDS);
+    }
+
+    /**
+     * Records tasks being marked as done.
+     * @param ids Ids of the tasks.
+     * @return the journal entry.
+     */
+    public static JournalEntry mark(long... ids) {
+        return new JournalEntry(Op.MARK, null, requireIds(ids));
+    }
+
+    /**
+     * Records tasks being marked as not done.
+     * @param ids Ids of the tasks.
+     * @return the journal entry.
+     */
+    public static JournalEntry unmark(long... ids) {
+        return new JournalEntry(Op.UNMARK, null, requireIds(ids));
+    }
+
+    /**
+     * Records tasks being removed in one step.
+     * @param ids Ids of the removed tasks.
+     * @return the journal entry.
+     */
+    public static JournalEntry delete(long... ids) {
+        return new JournalEntry(Op.DELETE, null, requireIds(ids));
+    }
+
+    /**
+     * Records the list being sorted by date.
+     * @return the journal entry.
+     */
+    public static JournalEntry sort() {
+        return new JournalEntry(Op.SORT, null, NO_IDS);
+    }
+
+    private static long[] requireIds(long[] ids) {
+        assert ids.length > 0 : "Journaled ids must not be empty";
+        return ids;
+    }
+
+    public Op getOp() {
+        return this.op;
+    }
+
+    public Task getTask() {
+        return this.task;
+    }
+
+    /**
+     * Returns the ids of the tasks the mutation applies to. The array must not be modified.
+     *
+     * @return task ids; empty for additions and sorts.
+     */
+    public long[] getIds() {
+        return this.ids;
+    }
+}
@@ -0,0 +1,94 @@
+package storage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import tasks.Task;
+
+/**
+ * Outcome of loading a save file: the tasks that could be parsed, in file order,
+ * together with every line that could not be parsed.
+ */
+public class LoadResult {
+    /**
+     * A save file line that could not be parsed.
+     */
+    public static class LineError {
+        private final long lineNumber;
+        private final String message;
+
+        /**
+         * Describes a malformed line.
+         * @param lineNumber 1-based line number within the file.
+         * @param message Why the line could not be parsed.
+         */
+        public LineError(long lineNumber, String message) {
+            this.lineNumber = lineNumber;
+            this.message = message;
+        }
+
+        public long getLineNumber() {
+            return this.lineNumber;
+        }
+
+        public String getMessage() {
+            return this.message;
+        }
+
+        @Override
+        public String toString() {
+            return "Line " + this.lineNumber + ": " + this.message;
+        }
+    }
+
+    private final ArrayList<Task> tasks;
+    private final List<LineError> errors;
+    private final long lineCount;
+    private final long nextId;
+
+    /**
+     * Bundles the result of a load from a file that does not record the next task id.
+     * @param tasks Parsed tasks, in file order.
+     * @param errors Malformed lines, in file order.
+     * @param lineCount Total number of lines read.
+     */
+    public LoadResult(ArrayList<Task> tasks, List<LineError> errors, long lineCount) {
+        this(tasks, errors, lineCount, Task.NO_ID);
+    }
+
+    /**
+     * Bundles the result of a load.
+     * @param tasks Parsed tasks, in file order.
+     * @param errors Malformed lines, in file order.
+     * @param lineCount Total number of lines read.
+     * @param nextId The next task id recorded in the file, or {@link Task#NO_ID} if it has none.
+     */
+    public LoadResult(ArrayList<Task> tasks, List<LineError> errors, long lineCount, long nextId) {
+        assert tasks != null && errors != null : "Load results must not be null";
+        this.tasks = tasks;
+        this.errors = Collections.unmodifiableList(errors);
+        this.lineCount = lineCount;
+        this.nextId = nextId;
+    }
+
+    public ArrayList<Task> getTasks() {
+        return this.tasks;
+    }
+
+    public List<LineError> getErrors() {
+        return this.errors;
+    }
+
+    public long getLineCount() {
+        return this.lineCount;
+    }
+
+    public boolean hasErrors() {
+        return !this.errors.isEmpty();
+    }
+
+    public long getNextId() {
+        return this.nextId;
+    }
+}
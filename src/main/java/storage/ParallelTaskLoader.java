@@ -0,0 +1,236 @@
+package storage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import exceptions.ParseStorageLineFailureException;
+import parser.StorageParser;
+import tasks.Task;
+
+/**
+ * Loads the text save file by reading it in line-aligned chunks and parsing the chunks
+ * in parallel on a fork-join pool. Results are reassembled in file order, and malformed lines are
+ * collected (with their line numbers) instead of aborting the load.
+ * Lines starting with {@code #} are headers rather than tasks; {@code "# next-id N"} records the next task id.
+ * Chunks are copied into heap buffers rather than memory-mapped: a mapping outlives the load until it is
+ * garbage collected, and on Windows it stops the file from being rewritten by the next save.
+ */
+public class ParallelTaskLoader {
+    public static final int DEFAULT_CHUNK_BYTES = 1 << 20;
+    public static final String HEADER_PREFIX = "#";
+    public static final String NEXT_ID_HEADER = "# next-id ";
+    private static final int ALIGN_READ_BYTES = 4096;
+
+    private final StorageParser storageParser;
+    private final ForkJoinPool pool;
+    private final int chunkBytes;
+
+    /**
+     * Creates a loader that parses on the common fork-join pool.
+     * @param storageParser Parser for individual lines.
+     */
+    public ParallelTaskLoader(StorageParser storageParser) {
+        this(storageParser, ForkJoinPool.commonPool(), DEFAULT_CHUNK_BYTES);
+    }
+
+    /**
+     * Creates a loader.
+     * @param storageParser Parser for individual lines. Must be safe to share between threads.
+     * @param pool Pool that chunks are parsed on.
+     * @param chunkBytes Files are split until chunks are no larger than this.
+     */
+    public ParallelTaskLoader(StorageParser storageParser, ForkJoinPool pool, int chunkBytes) {
+        assert storageParser != null : "StorageParser must not be null";
+        assert pool != null : "Pool must not be null";
+        assert chunkBytes > 0 : "Chunk size must be positive";
+        this.storageParser = storageParser;
+        this.pool = pool;
+        this.chunkBytes = chunkBytes;
+    }
+
+    /**
+     * Loads every task in the given file.
+     * @param path The save file.
+     * @return the parsed tasks and any malformed lines.
+     * @throws IOException If the file cannot be read.
+     */
+    public LoadResult load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            List<Chunk> chunks;
+            if (size <= this.chunkBytes) {
+                chunks = new ChunkTask(channel, 0, size).compute();
+            } else {
+                chunks = this.pool.invoke(new ChunkTask(channel, 0, size));
+            }
+            return assemble(chunks);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Concatenates chunk results in order, turning chunk-local line numbers into file line numbers.
+     */
+    private static LoadResult assemble(List<Chunk> chunks) {
+        int taskCount = 0;
+        for (Chunk chunk : chunks) {
+            taskCount += chunk.tasks.size();
+        }
+        ArrayList<Task> tasks = new ArrayList<>(taskCount);
+        List<LoadResult.LineError> errors = new ArrayList<>();
+        long linesBefore = 0;
+        long nextId = Task.NO_ID;
+        for (Chunk chunk : chunks) {
+            tasks.addAll(chunk.tasks);
+            nextId = Math.max(nextId, chunk.nextId);
+            for (LoadResult.LineError error : chunk.errors) {
+                errors.add(new LoadResult.LineError(linesBefore + error.getLineNumber(), error.getMessage()));
+            }
+            linesBefore += chunk.lineCount;
+        }
+        return new LoadResult(tasks, errors, linesBefore, nextId);
+    }
+
+    /**
+     * Parsed contents of one line-aligned region of the file. Line numbers are relative to the chunk.
+     */
+    private static class Chunk {
+        private final List<Task> tasks = new ArrayList<>();
+        private final List<LoadResult.LineError> errors = new ArrayList<>();
+        private long lineCount;
+        private long nextId = Task.NO_ID;
+    }
+
+    /**
+     * Splits a byte range in half at a line boundary until it is small enough, then parses it.
+     */
+    private class ChunkTask extends RecursiveTask<List<Chunk>> {
+        private final FileChannel channel;
+        private final long start;
+        private final long end;
+
+        ChunkTask(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected List<Chunk> compute() {
+            try {
+                if (this.end - this.start > ParallelTaskLoader.this.chunkBytes) {
+                    long mid = nextLineStart(this.start + (this.end - this.start) / 2);
+                    if (mid < this.end) {
+                        ChunkTask left = new ChunkTask(this.channel, this.start, mid);
+                        ChunkTask right = new ChunkTask(this.channel, mid, this.end);
+                        left.fork();
+                        List<Chunk> rightChunks = right.compute();
+                        List<Chunk> chunks = new ArrayList<>(left.join());
+                        chunks.addAll(rightChunks);
+                        return chunks;
+                    }
+                }
+                List<Chunk> chunks = new ArrayList<>(1);
+                chunks.add(parse());
+                return chunks;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Finds the offset just past the first newline at or after {@code position}.
+         *
+         * @return that offset, or {@code end} if the rest of the range holds no newline.
+         */
+        private long nextLineStart(long position) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(ALIGN_READ_BYTES);
+            long offset = position;
+            while (offset < this.end) {
+                buffer.clear();
+                buffer.limit((int) Math.min(ALIGN_READ_BYTES, this.end - offset));
+                int read = this.channel.read(buffer, offset);
+                if (read <= 0) {
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (buffer.get(i) == '\n') {
+                        return offset + i + 1;
+                    }
+                }
+                offset += read;
+            }
+            return this.end;
+        }
+
+        /**
+         * Copies this chunk's byte range into a heap buffer, ready to be decoded.
+         */
+        private ByteBuffer readRange() throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(this.end - this.start));
+            long offset = this.start;
+            while (buffer.hasRemaining()) {
+                int read = this.channel.read(buffer, offset);
+                if (read < 0) {
+                    break;
+                }
+                offset += read;
+            }
+            return buffer.flip();
+        }
+
+        private Chunk parse() throws IOException {
+            Chunk chunk = new Chunk();
+            if (this.end == this.start) {
+                return chunk;
+            }
+            String text = StandardCharsets.UTF_8.decode(readRange()).toString();
+            int lineStart = 0;
+            int length = text.length();
+            while (lineStart < length) {
+                int newline = text.indexOf('\n', lineStart);
+                int lineEnd = newline < 0 ? length : newline;
+                int contentEnd = lineEnd > lineStart && text.charAt(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+                chunk.lineCount++;
+                String line = text.substring(lineStart, contentEnd);
+                try {
+                    if (line.startsWith(HEADER_PREFIX)) {
+                        readHeader(line, chunk);
+                    } else {
+                        chunk.tasks.add(ParallelTaskLoader.this.storageParser.parseStorageLine(line));
+                    }
+                } catch (ParseStorageLineFailureException e) {
+                    chunk.errors.add(new LoadResult.LineError(chunk.lineCount, firstLine(e.getMessage())));
+                }
+                lineStart = lineEnd + 1;
+            }
+            return chunk;
+        }
+    }
+
+    private static void readHeader(String line, Chunk chunk) throws ParseStorageLineFailureException {
+        if (!line.startsWith(NEXT_ID_HEADER)) {
+            return;
+        }
+        try {
+            chunk.nextId = Math.max(chunk.nextId, Long.parseLong(line.substring(NEXT_ID_HEADER.length()).strip()));
+        } catch (NumberFormatException e) {
+            throw new ParseStorageLineFailureException("Header '" + line + "' has an invalid id");
+        }
+    }
+
+    private static String firstLine(String message) {
+        int newline = message.indexOf('\n');
+        return newline < 0 ? message : message.substring(0, newline);
+    }
+}
@@ -1,27 +1,65 @@
 package storage;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 import exceptions.ParseStorageLineFailureException;
 import parser.StorageParser;
+import stats.Stats;
 import tasks.DeadlineTask;
 import tasks.EventTask;
 import tasks.Task;
+import tasks.TaskLists;
 import tasks.TodoTask;
 
 /**
  * Maintains Dooki's internal state via text file.
  * OS-independent filepaths inspired by https://stackoverflow.com/questions/54588935
+ * In journaled mode, mutations are appended to a change journal next to the snapshot
+ * instead of rewriting the whole file, and the journal is folded back into the snapshot
+ * once it grows past a size threshold.
+ * Snapshots are written to a temporary file next to the save file and then moved over it, so a failed
+ * save leaves the previous snapshot, and the journal written against it, intact.
+ * The snapshot is either pipe-delimited text or the compact binary format; the format of an
+ * existing file is detected on load and kept when saving.
+ * Storage also hands out task ids, and records the next id with each snapshot so that ids of
+ * deleted tasks are never reused.
+ * A save file that cannot be read is never overwritten: storage turns read-only for the rest of the run.
  */
 public class Storage {
+    public static final long DEFAULT_COMPACTION_THRESHOLD_BYTES = 64 * 1024;
+    private static final String JOURNAL_SEPARATOR = " | ";
+    private static final String INDEX_SEPARATOR = ",";
+    private static final String ID_PREFIX = "#";
+
     private final Path storagePath;
+    private final Path journalPath;
+    private final Path tempPath;
     private final StorageParser storageParser;
+    private final ParallelTaskLoader loader;
+    private final BinaryTaskCodec binaryCodec;
+    private final boolean isJournaled;
+    private final long compactionThresholdBytes;
+    private long journalBytes;
+    private boolean isReadOnly = false;
+    private StorageFormat format;
+    private final AtomicLong nextId = new AtomicLong(1);
 
     /**
      * Loads a file pointer pointing to Dooki's save location.
@@ -31,9 +69,66 @@ public class Storage {
      * @param storageParser Storage Parser companion object.
      */
     public Storage(StorageParser storageParser) {
+        this(storageParser, false);
+    }
+
+    /**
+     * Loads a file pointer pointing to Dooki's save location, optionally journaling mutations.
+     * @param storageParser Storage Parser companion object.
+     * @param isJournaled Whether mutations are appended to a change journal instead of rewriting the file.
+     */
+    public Storage(StorageParser storageParser, boolean isJournaled) {
+        this(storageParser, Paths.get("data", "dooki.txt"), isJournaled, DEFAULT_COMPACTION_THRESHOLD_BYTES);
+    }
+
+    /**
+     * Loads a file pointer pointing to the given save location.
+     * @param storageParser Storage Parser companion object.
+     * @param storagePath Path of the snapshot file.
+     * @param isJournaled Whether mutations are appended to a change journal instead of rewriting the file.
+     * @param compactionThresholdBytes Journal size past which it is folded back into the snapshot.
+     */
+    public Storage(StorageParser storageParser, Path storagePath, boolean isJournaled, long compactionThresholdBytes) {
         assert storageParser != null : "StorageParser must not be null";
-        this.storagePath = Paths.get("data", "dooki.txt");
+        assert storagePath != null : "Storage path must not be null";
+        assert compactionThresholdBytes > 0 : "Compaction threshold must be positive";
+        this.storagePath = storagePath;
+        this.journalPath = storagePath.resolveSibling(journalFileName(storagePath));
+        this.tempPath = storagePath.resolveSibling(storagePath.getFileName() + ".tmp");
         this.storageParser = storageParser;
+        this.loader = new ParallelTaskLoader(storageParser);
+        this.binaryCodec = new BinaryTaskCodec();
+        this.isJournaled = isJournaled;
+        this.compactionThresholdBytes = compactionThresholdBytes;
+        this.journalBytes = 0;
+        this.format = StorageFormat.TEXT;
+    }
+
+    private static String journalFileName(Path storagePath) {
+        String fileName = storagePath.getFileName().toString();
+        int dot = fileName.lastIndexOf('.');
+        return (dot > 0 ? fileName.substring(0, dot) : fileName) + ".journal";
+    }
+
+    public Path getJournalPath() {
+        return this.journalPath;
+    }
+
+    public StorageFormat getFormat() {
+        return this.format;
+    }
+
+    /**
+     * Hands out a task id that has never been used in this save file.
+     *
+     * @return a fresh, positive id.
+     */
+    public long allocateId() {
+        return this.nextId.getAndIncrement();
+    }
+
+    public long getNextId() {
+        return this.nextId.get();
     }
 
     /**
@@ -54,43 +149,435 @@ public class Storage {
     /**
      * Loads tasks from disk. If the file (or its parents) do not exist,
      * they will be created and an empty list is returned.
+     * Large files are parsed in parallel; malformed lines are skipped and reported with their line numbers.
+     * Any change journal is replayed on top of the snapshot; outside journaled mode, a journal left by an
+     * earlier journaled run is then folded into the snapshot.
+     * If the save file cannot be read at all, e.g. because it is in an unsupported format, an empty list is
+     * returned and storage turns read-only, so that the file is left as it is for the user to recover.
      * @return List of tasks read from disk.
      */
     public ArrayList<Task> load() {
-        ArrayList<Task> tasks = new ArrayList<>();
+        StorageLoadEvent event = new StorageLoadEvent();
+        event.begin();
+        ArrayList<Task> tasks;
+        boolean hasSnapshot = Files.exists(this.storagePath);
         try {
             ensureFileExists();
-            List<String> lines = Files.readAllLines(this.storagePath);
-            for (String line : lines) {
-                Task task = this.storageParser.parseStorageLine(line);
-                assert task != null : "Parsed task should not be null";
-                tasks.add(task);
+            long fileSize = Files.size(this.storagePath);
+            if (fileSize > 0) {
+                this.format = BinaryTaskCodec.isBinary(this.storagePath) ? StorageFormat.BINARY : StorageFormat.TEXT;
+            }
+            LoadResult result = this.format == StorageFormat.BINARY
+                    ? this.binaryCodec.read(this.storagePath)
+                    : this.loader.load(this.storagePath);
+            tasks = result.getTasks();
+            Stats.countLinesParsed(result.getLineCount());
+            if (result.hasErrors()) {
+                reportMalformedLines(result.getErrors());
             }
+            assignMissingIds(tasks, result.getNextId());
+            event.fileSize = fileSize;
+            event.lineCount = result.getLineCount();
+            event.parseErrors = result.getErrors().size();
         } catch (IOException e) {
-            System.out.println("Something went wrong while loading the file: " + e.getMessage());
-        } catch (ParseStorageLineFailureException e) {
-            System.out.println("It would seem that your file is malformed. You may want to check it out.");
+            this.isReadOnly = true;
+            System.out.println("Something went wrong while loading the file: " + e.getMessage()
+                    + "\nYour file was left untouched, and changes made until Dooki is restarted will not be saved.");
+            return new ArrayList<>();
+        }
+        if (this.isJournaled) {
+            event.journalLines = loadJournal(tasks, hasSnapshot);
+        } else if (Files.exists(this.journalPath)) {
+            // Left by an earlier run in journaled mode: apply it, then fold it into the snapshot.
+            event.journalLines = loadJournal(tasks, hasSnapshot);
+            save(tasks);
+        }
+        if (event.shouldCommit()) {
+            event.path = this.storagePath.toString();
+            event.format = this.format.name();
+            event.taskCount = tasks.size();
+            event.commit();
         }
         return tasks;
     }
 
+    /**
+     * Gives ids to tasks from files written before tasks had ids, and fresh ids to duplicates in a damaged file.
+     * Ids are handed out in file order, so the same snapshot always gets the same ids; journal entries
+     * written against those ids then still apply after a restart.
+     */
+    private void assignMissingIds(List<Task> tasks, long recordedNextId) {
+        long next = Math.max(1, recordedNextId);
+        for (Task task : tasks) {
+            next = Math.max(next, task.getId() + 1);
+        }
+        Set<Long> seen = new HashSet<>();
+        int duplicates = 0;
+        for (Task task : tasks) {
+            if (!task.hasId()) {
+                task.assignId(next++);
+            } else if (!seen.add(task.getId())) {
+                task.assignId(next++);
+                duplicates++;
+            }
+            seen.add(task.getId());
+        }
+        if (duplicates > 0) {
+            System.out.println(duplicates + " task(s) in your file shared an id with another task"
+                    + " and were given new ids.");
+        }
+        this.nextId.set(next);
+    }
+
+    private void reportMalformedLines(List<LoadResult.LineError> errors) {
+        StringBuilder report = new StringBuilder();
+        report.append("It would seem that your file is malformed. You may want to check it out.\n");
+        report.append("These ").append(errors.size()).append(" line(s) were skipped:");
+        for (LoadResult.LineError error : errors) {
+            report.append("\n  ").append(error);
+        }
+        System.out.println(report);
+    }
+
     /**
      * Saves the tasks to disk. Always overwrites existing file.
+     * This also folds (clears) any change journal.
      * @param tasks List of tasks written to disk.
      */
     public void save(List<Task> tasks) {
         assert tasks != null : "Tasks to save must not be null";
+        if (this.isReadOnly) {
+            return;
+        }
+        long start = Stats.startTimer();
+        StorageSaveEvent event = new StorageSaveEvent();
+        event.begin();
         try {
             ensureFileExists();
-            List<String> lines = tasks.stream()
-                .map(this::formatTask)
-                .collect(Collectors.toList());
-            Files.write(this.storagePath, lines);
+            if (this.format == StorageFormat.BINARY) {
+                this.binaryCodec.write(this.tempPath, tasks, this.nextId.get());
+            } else {
+                List<String> lines = new ArrayList<>(tasks.size() + 1);
+                lines.add(ParallelTaskLoader.NEXT_ID_HEADER + this.nextId.get());
+                for (Task task : tasks) {
+                    lines.add(formatTask(task));
+                }
+                Files.write(this.tempPath, lines);
+            }
+            replaceSnapshot();
+            if (Stats.isTimed(start) || event.shouldCommit()) {
+                long bytes = Files.size(this.storagePath);
+                Stats.recordWrite(start, bytes);
+                commitSave(event, StorageSaveEvent.SNAPSHOT, tasks.size(), bytes);
+            }
+            Files.deleteIfExists(this.journalPath);
+            this.journalBytes = 0;
         } catch (IOException e) {
             System.out.println("Something went wrong while saving the file: " + e.getMessage());
         }
     }
 
+    /**
+     * Moves a fully written snapshot from the temporary file over the save file in one step, so the save
+     * file always holds either the old snapshot or the new one. Callers delete the journal only afterwards.
+     */
+    private void replaceSnapshot() throws IOException {
+        try {
+            Files.move(this.tempPath, this.storagePath, StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(this.tempPath, this.storagePath, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Rewrites the save file (and any pending journal) in the given format.
+     * Later saves keep using that format. A save file that cannot be read is left as it is.
+     * @param target Format to convert to.
+     * @return the number of tasks converted.
+     */
+    public int convert(StorageFormat target) {
+        assert target != null : "Target format must not be null";
+        ArrayList<Task> tasks = load();
+        if (this.isReadOnly) {
+            return 0;
+        }
+        this.format = target;
+        save(tasks);
+        return tasks.size();
+    }
+
+    /**
+     * Persists a single mutation of the task list.
+     * In journaled mode the mutation is appended to the change journal, and the journal is compacted
+     * into a fresh snapshot once it passes the size threshold. Otherwise the whole list is saved.
+     * @param entry The mutation that was just applied to the task list.
+     * @param tasks Supplies the task list after the mutation; only called if a snapshot is written.
+     */
+    public void record(JournalEntry entry, Supplier<List<Task>> tasks) {
+        assert entry != null : "Journal entry must not be null";
+        if (!this.isJournaled) {
+            save(tasks.get());
+            return;
+        }
+        append(List.of(entry));
+        if (needsCompaction()) {
+            save(tasks.get());
+        }
+    }
+
+    /**
+     * Appends mutations to the change journal in a single write.
+     * Callers are responsible for compacting the journal once {@link #needsCompaction()} reports so.
+     * @param entries The mutations to append, in the order they were applied.
+     */
+    public void append(List<JournalEntry> entries) {
+        assert this.isJournaled : "Only journaled storage can append entries";
+        assert entries != null : "Journal entries must not be null";
+        if (entries.isEmpty() || this.isReadOnly) {
+            return;
+        }
+        long start = Stats.startTimer();
+        StorageSaveEvent event = new StorageSaveEvent();
+        event.begin();
+        StringBuilder builder = new StringBuilder();
+        for (JournalEntry entry : entries) {
+            builder.append(formatEntry(entry)).append(System.lineSeparator());
+        }
+        try {
+            ensureFileExists();
+            byte[] bytes = builder.toString().getBytes(StandardCharsets.UTF_8);
+            Files.write(this.journalPath, bytes, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            this.journalBytes += bytes.length;
+            Stats.recordWrite(start, bytes.length);
+            commitSave(event, StorageSaveEvent.JOURNAL, entries.size(), bytes.length);
+        } catch (IOException e) {
+            System.out.println("Something went wrong while saving the file: " + e.getMessage());
+        }
+    }
+
+    private void commitSave(StorageSaveEvent event, String kind, int taskCount, long bytes) {
+        if (event.shouldCommit()) {
+            event.kind = kind;
+            event.format = this.format.name();
+            event.taskCount = taskCount;
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+
+    /**
+     * Reports whether the change journal has grown past its compaction threshold.
+     *
+     * @return true if the journal should be folded into a fresh snapshot.
+     */
+    public boolean needsCompaction() {
+        return this.isJournaled && this.journalBytes > this.compactionThresholdBytes;
+    }
+
+    public boolean isJournaled() {
+        return this.isJournaled;
+    }
+
+    /**
+     * Reports whether the save file could not be read, so that changes are no longer written to it.
+     *
+     * @return true if saves are being skipped to protect an unreadable save file.
+     */
+    public boolean isReadOnly() {
+        return this.isReadOnly;
+    }
+
+    /**
+     * Replays the change journal on top of the freshly loaded snapshot.
+     * A journal without a snapshot is left over from a removed save file, so it is discarded.
+     * If replay fails part-way, the tasks replayed so far are kept and folded into a new snapshot.
+     *
+     * @return the number of journal lines read.
+     */
+    private long loadJournal(ArrayList<Task> tasks, boolean hasSnapshot) {
+        List<String> lines;
+        try {
+            if (!hasSnapshot || !Files.exists(this.journalPath)) {
+                Files.deleteIfExists(this.journalPath);
+                this.journalBytes = 0;
+                return 0;
+            }
+            lines = Files.readAllLines(this.journalPath);
+            this.journalBytes = Files.size(this.journalPath);
+            Stats.countLinesParsed(lines.size());
+            Map<Long, Task> tasksById = new HashMap<>(tasks.size() * 2);
+            for (Task task : tasks) {
+                tasksById.put(task.getId(), task);
+            }
+            for (int i = 0; i < lines.size(); i++) {
+                try {
+                    replayEntry(lines.get(i), tasks, tasksById);
+                } catch (ParseStorageLineFailureException | IndexOutOfBoundsException e) {
+                    System.out.println("Your change journal is malformed at line " + (i + 1)
+                            + ". Later changes were skipped.");
+                    save(tasks);
+                    return lines.size();
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Something went wrong while loading the file: " + e.getMessage());
+            return 0;
+        }
+        if (needsCompaction()) {
+            save(tasks);
+        }
+        return lines.size();
+    }
+
+    private void replayEntry(String line, List<Task> tasks, Map<Long, Task> tasksById)
+            throws ParseStorageLineFailureException {
+        JournalEntry.Op op = line.isEmpty() ? null : JournalEntry.Op.fromCode(line.charAt(0));
+        if (op == null) {
+            throw new ParseStorageLineFailureException("Journal entry '" + line + "' has unknown operation");
+        }
+        if (op == JournalEntry.Op.SORT) {
+            tasks.sort(Task.DATE_ORDER);
+            return;
+        }
+        if (!line.startsWith(JOURNAL_SEPARATOR, 1)) {
+            throw new ParseStorageLineFailureException("Journal entry '" + line + "' has no argument");
+        }
+        String arg = line.substring(1 + JOURNAL_SEPARATOR.length());
+        if (op == JournalEntry.Op.ADD) {
+            Task task = this.storageParser.parseStorageLine(arg);
+            if (!task.hasId()) {
+                task.assignId(allocateId());
+            }
+            if (tasksById.putIfAbsent(task.getId(), task) != null) {
+                throw new ParseStorageLineFailureException("Journal entry '" + line + "' reuses a task id");
+            }
+            this.nextId.accumulateAndGet(task.getId() + 1, Math::max);
+            tasks.add(task);
+            return;
+        }
+        if (arg.startsWith(ID_PREFIX)) {
+            replayByIds(op, line, parseIds(line, arg, tasksById), tasks, tasksById);
+            return;
+        }
+        // Journals written before tasks had ids refer to tasks by position.
+        int[] indices = parseIndices(line, arg);
+        if (indices[indices.length - 1] >= tasks.size()) {
+            throw new IndexOutOfBoundsException("Journal entry '" + line + "' is out of bounds");
+        }
+        switch (op) {
+        case MARK:
+            for (int index : indices) {
+                tasks.get(index).markDone();
+            }
+            break;
+        case UNMARK:
+            for (int index : indices) {
+                tasks.get(index).markUndone();
+            }
+            break;
+        case DELETE:
+            for (int index : indices) {
+                tasksById.remove(tasks.get(index).getId());
+            }
+            TaskLists.removeAt(tasks, indices);
+            break;
+        default:
+            throw new ParseStorageLineFailureException("Journal entry '" + line + "' has unknown operation");
+        }
+    }
+
+    private static void replayByIds(JournalEntry.Op op, String line, List<Task> targets, List<Task> tasks,
+            Map<Long, Task> tasksById) throws ParseStorageLineFailureException {
+        switch (op) {
+        case MARK:
+            targets.forEach(Task::markDone);
+            break;
+        case UNMARK:
+            targets.forEach(Task::markUndone);
+            break;
+        case DELETE: {
+            Set<Task> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Task task : targets) {
+                removed.add(task);
+                tasksById.remove(task.getId());
+            }
+            tasks.removeIf(removed::contains);
+            break;
+        }
+        default:
+            throw new ParseStorageLineFailureException("Journal entry '" + line + "' has unknown operation");
+        }
+    }
+
+    /**
+     * Parses a comma-separated list of ids such as {@code "#3,#7"} and looks up their tasks.
+     */
+    private static List<Task> parseIds(String line, String arg, Map<Long, Task> tasksById)
+            throws ParseStorageLineFailureException {
+        String[] fields = arg.split(INDEX_SEPARATOR);
+        List<Task> targets = new ArrayList<>(fields.length);
+        for (String field : fields) {
+            Task task = null;
+            if (field.startsWith(ID_PREFIX)) {
+                try {
+                    task = tasksById.get(Long.parseLong(field.substring(ID_PREFIX.length())));
+                } catch (NumberFormatException e) {
+                    task = null;
+                }
+            }
+            if (task == null) {
+                throw new ParseStorageLineFailureException("Journal entry '" + line + "' has unknown task id");
+            }
+            targets.add(task);
+        }
+        return targets;
+    }
+
+    /**
+     * Parses a comma-separated list of strictly ascending, non-negative indices.
+     */
+    private static int[] parseIndices(String line, String arg) throws ParseStorageLineFailureException {
+        String[] fields = arg.split(INDEX_SEPARATOR);
+        int[] indices = new int[fields.length];
+        try {
+            for (int i = 0; i < fields.length; i++) {
+                indices[i] = Integer.parseInt(fields[i]);
+                if (indices[i] < 0 || (i > 0 && indices[i] <= indices[i - 1])) {
+                    throw new NumberFormatException();
+                }
+            }
+        } catch (NumberFormatException e) {
+            throw new ParseStorageLineFailureException("Journal entry '" + line + "' has invalid index");
+        }
+        return indices;
+    }
+
+    /**
+     * Formats a mutation for the change journal.
+     * @param entry The mutation to be exported.
+     * @return A single journal line.
+     */
+    private String formatEntry(JournalEntry entry) {
+        char code = entry.getOp().getCode();
+        switch (entry.getOp()) {
+        case ADD:
+            return code + JOURNAL_SEPARATOR + formatTask(entry.getTask());
+        case SORT:
+            return String.valueOf(code);
+        default:
+            StringBuilder line = new StringBuilder().append(code).append(JOURNAL_SEPARATOR);
+            long[] ids = entry.getIds();
+            for (int i = 0; i < ids.length; i++) {
+                if (i > 0) {
+                    line.append(INDEX_SEPARATOR);
+                }
+                line.append(ID_PREFIX).append(ids[i]);
+            }
+            return line.toString();
+        }
+    }
+
     /**
      * Formats the task for export into a save file.
      * @param task The task to be exported
@@ -98,6 +585,11 @@ public class Storage {
      */
     private String formatTask(Task task) {
         assert task != null : "Task to format must not be null";
+        String fields = formatTaskFields(task);
+        return task.hasId() ? task.getId() + " | " + fields : fields;
+    }
+
+    private String formatTaskFields(Task task) {
         String status = task.isDone() ? "1" : "0";
         // Reuse from IDE suggestion to invoke instanceof.
         if (task instanceof TodoTask) {
@@ -0,0 +1,11 @@
+package storage;
+
+/**
+ * On-disk formats that Dooki's save file can be written in.
+ */
+public enum StorageFormat {
+    /** Human-readable, pipe-delimited lines such as {@code T | 0 | read book}. */
+    TEXT,
+    /** Compact binary records, see {@link BinaryTaskCodec}. */
+    BINARY
+}
@@ -0,0 +1,41 @@
+package storage;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for {@link Storage#load()}, including the journal replay.
+ */
+@Name("dooki.StorageLoad")
+@Label("Storage Load")
+@Category({"Dooki", "Storage"})
+@Description("The save file read and parsed, and the change journal replayed")
+@StackTrace(false)
+class StorageLoadEvent extends Event {
+    @Label("Path")
+    String path;
+
+    @Label("Format")
+    String format;
+
+    @Label("File Size")
+    @DataAmount
+    long fileSize;
+
+    @Label("Line Count")
+    long lineCount;
+
+    @Label("Parse Errors")
+    int parseErrors;
+
+    @Label("Journal Lines")
+    long journalLines;
+
+    @Label("Task Count")
+    int taskCount;
+}
@@ -0,0 +1,37 @@
+package storage;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for a write by {@link Storage}: a whole snapshot, or entries appended to the journal.
+ */
+@Name("dooki.StorageSave")
+@Label("Storage Save")
+@Category({"Dooki", "Storage"})
+@Description("Tasks written to the save file, or changes appended to the change journal")
+@StackTrace(false)
+class StorageSaveEvent extends Event {
+    static final String SNAPSHOT = "snapshot";
+    static final String JOURNAL = "journal";
+
+    @Label("Kind")
+    @Description("snapshot for a whole save file, journal for appended changes")
+    String kind;
+
+    @Label("Format")
+    String format;
+
+    @Label("Task Count")
+    @Description("Tasks in a snapshot, or changes appended to the journal")
+    int taskCount;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+}
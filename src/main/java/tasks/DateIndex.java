@@ -0,0 +1,100 @@
+package tasks;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Ordered index of dated tasks keyed by epoch day: deadlines by their deadline, events by their start.
+ * Range queries cost O(log n + k). Tasks sharing a date are kept in task list order.
+ */
+public class DateIndex {
+    private final TreeMap<Long, List<Task>> tasksByDay = new TreeMap<>();
+    private int size;
+
+    /**
+     * Indexes a task appended to the end of the task list. Undated tasks are ignored.
+     * @param task The added task.
+     */
+    public void add(Task task) {
+        LocalDate date = task.getSortDate();
+        if (date == null) {
+            return;
+        }
+        this.tasksByDay.computeIfAbsent(date.toEpochDay(), day -> new ArrayList<>(1)).add(task);
+        this.size++;
+    }
+
+    /**
+     * Removes a task from the index.
+     * @param task The removed task.
+     */
+    public void remove(Task task) {
+        LocalDate date = task.getSortDate();
+        if (date == null) {
+            return;
+        }
+        List<Task> tasks = this.tasksByDay.get(date.toEpochDay());
+        if (tasks == null) {
+            return;
+        }
+        for (int i = 0; i < tasks.size(); i++) {
+            if (tasks.get(i) == task) {
+                tasks.remove(i);
+                this.size--;
+                break;
+            }
+        }
+        if (tasks.isEmpty()) {
+            this.tasksByDay.remove(date.toEpochDay());
+        }
+    }
+
+    /**
+     * Re-indexes the given tasks from scratch, e.g. after a reload.
+     * @param tasks The full task list, in order.
+     */
+    public void rebuild(List<Task> tasks) {
+        this.tasksByDay.clear();
+        this.size = 0;
+        for (Task task : tasks) {
+            add(task);
+        }
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Finds tasks dated on or before the given day.
+     * @param date Last day, inclusive.
+     * @return matching tasks, ordered by date.
+     */
+    public List<Task> findUpTo(LocalDate date) {
+        return collect(this.tasksByDay.headMap(date.toEpochDay(), true));
+    }
+
+    /**
+     * Finds tasks dated within the given days.
+     * @param from First day, inclusive.
+     * @param to Last day, inclusive.
+     * @return matching tasks, ordered by date.
+     */
+    public List<Task> findBetween(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            return new ArrayList<>();
+        }
+        return collect(this.tasksByDay.subMap(from.toEpochDay(), true, to.toEpochDay(), true));
+    }
+
+    private static List<Task> collect(NavigableMap<Long, List<Task>> days) {
+        List<Task> matches = new ArrayList<>();
+        for (List<Task> tasks : days.values()) {
+            matches.addAll(tasks);
+        }
+        return matches;
+    }
+}
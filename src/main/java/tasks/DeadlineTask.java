@@ -30,9 +30,9 @@ public class DeadlineTask extends Task {
     }
 
     @Override
-    public String toString() {
+    protected String render() {
         // Reused from https://nus-cs2103-ay2526-s2.github.io/website/schedule/week3/project.html
         String formattedDeadline = this.deadline.format(OUTPUT_FORMAT);
-        return "[D]" + super.toString() + " (by: " + formattedDeadline + ")";
+        return "[D]" + super.render() + " (by: " + formattedDeadline + ")";
     }
 }
@@ -37,9 +37,9 @@ public class EventTask extends Task {
     }
 
     @Override
-    public String toString() {
+    protected String render() {
         String formattedFrom = this.from.format(OUTPUT_FORMAT);
         String formattedTo = this.to.format(OUTPUT_FORMAT);
-        return "[E]" + super.toString() + " (from: " + formattedFrom + " to: " + formattedTo + ")";
+        return "[E]" + super.render() + " (from: " + formattedFrom + " to: " + formattedTo + ")";
     }
 }
@@ -0,0 +1,24 @@
+package tasks;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for {@link TaskManager} rebuilding one of its indexes, or compacting its slots.
+ */
+@Name("dooki.IndexRebuild")
+@Label("Index Rebuild")
+@Category({"Dooki", "Tasks"})
+@Description("An index over the task list rebuilt from scratch, or the task list compacted")
+@StackTrace(false)
+class IndexRebuildEvent extends Event {
+    @Label("Index")
+    String index;
+
+    @Label("Task Count")
+    int taskCount;
+}
@@ -0,0 +1,93 @@
+package tasks;
+
+import java.util.Arrays;
+
+/**
+ * Counts the task list's live slots, i.e. those not left empty by a delete, in a Fenwick tree.
+ * The slot holding the task at a given position is found in O(log n) steps, however many empty slots
+ * are waiting to be compacted, and emptying a slot costs O(log n) as well.
+ * Slots are only ever added at the end of the list. Not thread-safe.
+ */
+public class LiveSlotCounter {
+    private static final int MIN_CAPACITY = 16;
+
+    // 1-based: tree[i] counts the live slots among slots (i - lowbit(i), i]. The capacity is a power of two.
+    private int[] tree = new int[MIN_CAPACITY + 1];
+    private int slotCount;
+    private int liveCount;
+
+    /**
+     * Starts over with the given number of slots, all of them live, e.g. after the list is compacted.
+     * @param size Number of slots.
+     */
+    public void reset(int size) {
+        assert size >= 0 : "Slot count must not be negative";
+        int capacity = MIN_CAPACITY;
+        while (capacity < size) {
+            capacity <<= 1;
+        }
+        this.tree = new int[capacity + 1];
+        for (int i = 1; i <= capacity; i++) {
+            int rangeStart = i - Integer.lowestOneBit(i);
+            this.tree[i] = Math.max(0, Math.min(i, size) - rangeStart);
+        }
+        this.slotCount = size;
+        this.liveCount = size;
+    }
+
+    /**
+     * Adds a live slot at the end.
+     */
+    public void append() {
+        int capacity = this.tree.length - 1;
+        if (this.slotCount == capacity) {
+            // Every slot of the new upper half is unused, so only the new root covers any live slot.
+            this.tree = Arrays.copyOf(this.tree, 2 * capacity + 1);
+            this.tree[2 * capacity] = this.liveCount;
+        }
+        this.update(++this.slotCount, 1);
+        this.liveCount++;
+    }
+
+    /**
+     * Records that a live slot was left empty.
+     * @param slot 0-based slot.
+     */
+    public void empty(int slot) {
+        assert slot >= 0 && slot < this.slotCount : "Slot is out of range";
+        this.update(slot + 1, -1);
+        this.liveCount--;
+    }
+
+    /**
+     * Returns the number of live slots.
+     */
+    public int liveCount() {
+        return this.liveCount;
+    }
+
+    /**
+     * Finds the slot holding the task at the given position among the live slots.
+     * @param position 0-based position, less than {@link #liveCount()}.
+     * @return the 0-based slot.
+     */
+    public int slotOf(int position) {
+        assert position >= 0 && position < this.liveCount : "Position is out of range";
+        int capacity = this.tree.length - 1;
+        int slot = 0;
+        int remaining = position + 1;
+        for (int step = capacity; step > 0; step >>= 1) {
+            if (this.tree[slot + step] < remaining) {
+                slot += step;
+                remaining -= this.tree[slot];
+            }
+        }
+        return slot;
+    }
+
+    private void update(int index, int delta) {
+        for (int i = index; i < this.tree.length; i += Integer.lowestOneBit(i)) {
+            this.tree[i] += delta;
+        }
+    }
+}
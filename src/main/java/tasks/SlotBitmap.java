@@ -0,0 +1,115 @@
+package tasks;
+
+import java.util.Arrays;
+
+/**
+ * A set of task list slots, stored as a bitmap split into chunks of 4096 slots.
+ * Empty chunks are not allocated, so a sparse set costs little more than its populated chunks, and
+ * iterating with {@link #nextSetBit(int)} skips a whole empty chunk in one step.
+ * Population counts are kept per chunk and overall, so {@link #cardinality()} never scans.
+ * Not thread-safe.
+ */
+public class SlotBitmap {
+    private static final int CHUNK_BITS = 12;
+    private static final int WORDS_PER_CHUNK = 1 << (CHUNK_BITS - 6);
+
+    private long[][] chunks = new long[0][];
+    private int[] chunkCounts = new int[0];
+    private int cardinality;
+
+    /**
+     * Adds a slot to the set.
+     * @param slot 0-based slot.
+     */
+    public void set(int slot) {
+        assert slot >= 0 : "Slot must not be negative";
+        int chunk = slot >>> CHUNK_BITS;
+        if (chunk >= this.chunks.length) {
+            int newLength = Math.max(chunk + 1, this.chunks.length + (this.chunks.length >> 1));
+            this.chunks = Arrays.copyOf(this.chunks, newLength);
+            this.chunkCounts = Arrays.copyOf(this.chunkCounts, newLength);
+        }
+        if (this.chunks[chunk] == null) {
+            this.chunks[chunk] = new long[WORDS_PER_CHUNK];
+        }
+        long[] words = this.chunks[chunk];
+        int word = (slot >>> 6) & (WORDS_PER_CHUNK - 1);
+        long bit = 1L << slot;
+        if ((words[word] & bit) == 0) {
+            words[word] |= bit;
+            this.chunkCounts[chunk]++;
+            this.cardinality++;
+        }
+    }
+
+    /**
+     * Removes a slot from the set, releasing its chunk once the chunk is empty.
+     * @param slot 0-based slot.
+     */
+    public void clear(int slot) {
+        if (!this.get(slot)) {
+            return;
+        }
+        int chunk = slot >>> CHUNK_BITS;
+        this.chunks[chunk][(slot >>> 6) & (WORDS_PER_CHUNK - 1)] &= ~(1L << slot);
+        this.cardinality--;
+        if (--this.chunkCounts[chunk] == 0) {
+            this.chunks[chunk] = null;
+        }
+    }
+
+    public boolean get(int slot) {
+        int chunk = slot >>> CHUNK_BITS;
+        if (slot < 0 || chunk >= this.chunks.length || this.chunks[chunk] == null) {
+            return false;
+        }
+        return (this.chunks[chunk][(slot >>> 6) & (WORDS_PER_CHUNK - 1)] & (1L << slot)) != 0;
+    }
+
+    /**
+     * Returns the number of slots in the set.
+     */
+    public int cardinality() {
+        return this.cardinality;
+    }
+
+    /**
+     * Finds the first slot in the set at or after the given one.
+     * @param fromSlot 0-based slot to start from.
+     * @return the slot, or -1 if there is none.
+     */
+    public int nextSetBit(int fromSlot) {
+        assert fromSlot >= 0 : "Slot must not be negative";
+        for (int chunk = fromSlot >>> CHUNK_BITS; chunk < this.chunks.length; chunk++) {
+            long[] words = this.chunks[chunk];
+            if (words == null) {
+                continue;
+            }
+            int chunkStart = chunk << CHUNK_BITS;
+            int word = fromSlot > chunkStart ? (fromSlot >>> 6) & (WORDS_PER_CHUNK - 1) : 0;
+            long bits = words[word];
+            if (fromSlot > chunkStart) {
+                bits &= -1L << fromSlot;
+            }
+            while (true) {
+                if (bits != 0) {
+                    return chunkStart + (word << 6) + Long.numberOfTrailingZeros(bits);
+                }
+                if (++word == WORDS_PER_CHUNK) {
+                    break;
+                }
+                bits = words[word];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Empties the set and releases its chunks.
+     */
+    public void clear() {
+        this.chunks = new long[0][];
+        this.chunkCounts = new int[0];
+        this.cardinality = 0;
+    }
+}
@@ -0,0 +1,85 @@
+package tasks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Date-ordered view of the task list that is maintained incrementally.
+ * New tasks are inserted at their binary-searched position, after any tasks with the same date,
+ * so the view always equals a stable sort of the task list by {@link Task#DATE_ORDER}.
+ */
+public class SortedTaskView {
+    private final ArrayList<Task> tasks = new ArrayList<>();
+
+    /**
+     * Rebuilds the view from the task list.
+     * @param taskList The full task list, in order.
+     */
+    public void rebuild(List<Task> taskList) {
+        this.tasks.clear();
+        this.tasks.addAll(taskList);
+        this.tasks.sort(Task.DATE_ORDER);
+    }
+
+    /**
+     * Inserts a task appended to the end of the task list.
+     * @param task The added task.
+     */
+    public void add(Task task) {
+        this.tasks.add(upperBound(task), task);
+    }
+
+    /**
+     * Removes a task from the view.
+     * @param task The removed task.
+     */
+    public void remove(Task task) {
+        int end = upperBound(task);
+        for (int i = end - 1; i >= 0 && Task.DATE_ORDER.compare(this.tasks.get(i), task) == 0; i--) {
+            if (this.tasks.get(i) == task) {
+                this.tasks.remove(i);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Removes several tasks from the view in one pass.
+     * @param removed The removed tasks, compared by identity.
+     */
+    public void removeAll(Set<Task> removed) {
+        this.tasks.removeIf(removed::contains);
+    }
+
+    public void clear() {
+        this.tasks.clear();
+    }
+
+    /**
+     * Returns the tasks in date order.
+     *
+     * @return a read-only list backed by the view.
+     */
+    public List<Task> asList() {
+        return Collections.unmodifiableList(this.tasks);
+    }
+
+    /**
+     * Finds the index just past the last task that sorts equal to the given task.
+     */
+    private int upperBound(Task task) {
+        int low = 0;
+        int high = this.tasks.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Task.DATE_ORDER.compare(this.tasks.get(mid), task) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
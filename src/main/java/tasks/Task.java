@@ -1,15 +1,56 @@
 package tasks;
 
 import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Denotes a task provided by the user.
  * A task can be done or not done; concrete subclasses represent specific task types.
+ * Once stored, a task also has a stable id that survives deletes, sorts and restarts.
+ * A task's display string is built once and reused until the task changes, as listings render every task.
  */
 
 public abstract class Task {
+    /**
+     * Orders tasks chronologically by {@link #getSortDate()}.
+     * Tasks without dates go after dated tasks; the ordering is stable when used with {@code List.sort}.
+     */
+    public static final Comparator<Task> DATE_ORDER = (taskA, taskB) -> {
+        LocalDate dateA = taskA.getSortDate();
+        LocalDate dateB = taskB.getSortDate();
+
+        if (dateA == null && dateB == null) {
+            return 0;
+        }
+        if (dateA == null) {
+            return 1;
+        }
+        if (dateB == null) {
+            return -1;
+        }
+        return dateA.compareTo(dateB);
+    };
+
+    public static final long NO_ID = 0;
+
     private final String description;
-    private boolean isDone;
+    private volatile boolean isDone;
+    private long id = NO_ID;
+    // Bumped by every change that affects the display string, after the change is made.
+    private final AtomicInteger version = new AtomicInteger();
+    // Last display string built, with the version it was built at; stale once the version moves on.
+    private volatile Rendering rendered;
+
+    private static class Rendering {
+        private final String text;
+        private final int version;
+
+        Rendering(String text, int version) {
+            this.text = text;
+            this.version = version;
+        }
+    }
 
     /**
      * Instantiates a task.
@@ -31,6 +72,7 @@ public abstract class Task {
      */
     public void markDone() {
         this.isDone = true;
+        this.version.incrementAndGet();
     }
 
     /**
@@ -38,6 +80,7 @@ public abstract class Task {
      */
     public void markUndone() {
         this.isDone = false;
+        this.version.incrementAndGet();
     }
 
     /**
@@ -49,6 +92,25 @@ public abstract class Task {
         return this.isDone;
     }
 
+    public long getId() {
+        return this.id;
+    }
+
+    public boolean hasId() {
+        return this.id != NO_ID;
+    }
+
+    /**
+     * Gives the task its stable id. Ids are assigned when the task is first stored, and only
+     * reassigned by storage to repair duplicate ids in a damaged save file.
+     *
+     * @param id a positive id, unique within the task list.
+     */
+    public void assignId(long id) {
+        assert id > 0 : "Task ids must be positive";
+        this.id = id;
+    }
+
     public String getDescription() {
         return this.description;
     }
@@ -67,8 +129,32 @@ public abstract class Task {
         return this.isDone ? "X" : " ";
     }
 
-    @Override
-    public String toString() {
+    /**
+     * Builds the task's display string from scratch. Subclasses add their type and dates around it.
+     * Overrides must only depend on fields whose changes bump the task's version.
+     *
+     * @return the display string.
+     */
+    protected String render() {
         return "[" + this.getDoneSymbol() + "] " + this.description;
     }
+
+    /**
+     * Returns the task's display string, rendering it only if the task changed since it was last shown.
+     * Safe to call while other threads mark the task: a rendering is only reused while the version it
+     * was built at is current, so one raced by a change is never served afterwards.
+     */
+    @Override
+    public final String toString() {
+        int current = this.version.get();
+        Rendering cached = this.rendered;
+        if (cached != null && cached.version == current) {
+            return cached.text;
+        }
+        String text = this.render();
+        if (this.version.get() == current) {
+            this.rendered = new Rendering(text, current);
+        }
+        return text;
+    }
 }
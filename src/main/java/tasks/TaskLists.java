@@ -0,0 +1,38 @@
+package tasks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bulk operations on task lists.
+ */
+public final class TaskLists {
+    private TaskLists() {
+    }
+
+    /**
+     * Removes the tasks at the given indices in a single pass, shifting each survivor at most once.
+     * @param tasks The list to compact.
+     * @param indices Strictly ascending 0-based indices, all within the list.
+     * @return the removed tasks, in list order.
+     */
+    public static List<Task> removeAt(List<Task> tasks, int[] indices) {
+        assert indices.length == 0 || indices[indices.length - 1] < tasks.size() : "Index is out of bounds";
+        List<Task> removed = new ArrayList<>(indices.length);
+        if (indices.length == 0) {
+            return removed;
+        }
+        int write = indices[0];
+        int next = 0;
+        for (int read = indices[0]; read < tasks.size(); read++) {
+            if (next < indices.length && indices[next] == read) {
+                removed.add(tasks.get(read));
+                next++;
+            } else {
+                tasks.set(write++, tasks.get(read));
+            }
+        }
+        tasks.subList(write, tasks.size()).clear();
+        return removed;
+    }
+}
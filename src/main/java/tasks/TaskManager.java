@@ -1,28 +1,90 @@
 package tasks;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import exceptions.InvalidTaskIndexException;
 import exceptions.NoTasksFoundException;
+import storage.AsyncStorageWriter;
+import storage.JournalEntry;
+import stats.Stats;
 import storage.Storage;
 
 /**
  * Manages the user's list of tasks.
+ * Mutations are persisted either immediately on the caller's thread, or in the background by a
+ * writer thread that coalesces bursts of mutations into a single write.
+ * Safe to share between threads: lookups and listings share a read lock, while mutations
+ * (including their index maintenance and hand-off to storage) are serialised by the write lock.
+ * Every task has a stable id, so it can also be addressed independently of its position in the list.
+ * Deleted tasks leave an empty slot behind instead of shifting the tasks after them; the slots are
+ * compacted once they make up half of the list, or when the list is reordered. Until then, live slots are
+ * counted in a Fenwick tree, so a task is found by its position in O(log n) steps.
+ * Done and undone tasks are tracked in slot bitmaps, so counting them takes constant time and listing
+ * them only visits their own slots.
  */
 public class TaskManager {
+    // Listings copy this many tasks per read lock, so writing them out never blocks mutations for long.
+    private static final int WRITE_CHUNK_TASKS = 256;
+
+    // Deleted tasks leave null slots ("tombstones") until the list is compacted.
     private final ArrayList<Task> taskList = new ArrayList<>();
+    private final HashMap<Long, Integer> slotsById = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
     // Compose storage so we can autosync on every iteration.
     private final Storage storage;
+    private final AsyncStorageWriter writer;
+    private final TaskOrder taskOrder = new TaskOrder();
+    private final TokenIndex tokenIndex = new TokenIndex(this.taskOrder);
+    private final TrigramIndex trigramIndex = new TrigramIndex(this.taskOrder);
+    private final DateIndex dateIndex = new DateIndex();
+    private final SortedTaskView sortedView = new SortedTaskView();
+    private final SlotBitmap doneSlots = new SlotBitmap();
+    private final SlotBitmap undoneSlots = new SlotBitmap();
+    private final SlotBitmap emptySlots = new SlotBitmap();
+    private final LiveSlotCounter liveSlots = new LiveSlotCounter();
+    private boolean isKeptSorted = false;
+    private boolean isTrigramIndexEnabled = false;
+    private boolean isInBatch = false;
+    private boolean hasBatchChanges = false;
+    private int tombstoneCount = 0;
+    // Bumped whenever tasks change slots, so listings know when their place in the list is stale.
+    private long slotVersion = 0;
 
     /**
      * Initializes the task manager with existing storage.
+     * Every mutation is written to storage before the mutating call returns.
      * @param storage The storage location
      */
     public TaskManager(Storage storage) {
         assert storage != null : "Storage must not be null";
         this.storage = storage;
-        this.taskList.addAll(this.storage.load());
+        this.loadTasks();
+        this.writer = null;
+    }
+
+    /**
+     * Initializes the task manager with existing storage, persisting mutations in the background.
+     * Mutations are coalesced into one write per window, or sooner once {@code maxPendingWrites} pile up.
+     * @param storage The storage location
+     * @param writeWindowMillis How long the writer waits for further mutations before writing.
+     * @param maxPendingWrites Number of pending mutations that triggers an early write.
+     */
+    public TaskManager(Storage storage, long writeWindowMillis, int maxPendingWrites) {
+        assert storage != null : "Storage must not be null";
+        this.storage = storage;
+        this.loadTasks();
+        this.writer = new AsyncStorageWriter(this.storage, this::snapshot, writeWindowMillis, maxPendingWrites);
     }
 
     /**
@@ -30,9 +92,22 @@ public class TaskManager {
      * @param task Task instance.
      */
     public void add(Task task) {
-        assert task != null : "Task to add must not be null";
-        this.taskList.add(task);
-        this.persist();
+        this.lock.writeLock().lock();
+        try {
+            assert task != null : "Task to add must not be null";
+            if (!task.hasId()) {
+                task.assignId(this.storage.allocateId());
+            }
+            assert !this.slotsById.containsKey(task.getId()) : "Task ids must be unique";
+            this.slotsById.put(task.getId(), this.taskList.size());
+            this.trackStatus(this.taskList.size(), task);
+            this.taskList.add(task);
+            this.liveSlots.append();
+            this.indexAdded(task);
+            this.persist(JournalEntry.add(task));
+        } finally {
+            this.lock.writeLock().unlock();
+        }
     }
 
     /**
@@ -41,26 +116,60 @@ public class TaskManager {
      * @return the task at index taskIndex
      */
     public Task get(int taskIndex) {
-        assert taskIndex >= 0 && taskIndex < this.taskList.size() : "Task index is out of bounds";
-        return this.taskList.get(taskIndex);
+        this.lock.readLock().lock();
+        try {
+            assert taskIndex >= 0 && taskIndex < this.size() : "Task index is out of bounds";
+            return this.taskList.get(this.slotAt(taskIndex));
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retrieves a task by its id.
+     * @param id Id of the task to be retrieved.
+     * @return the task with that id, or null if there is none.
+     */
+    public Task getById(long id) {
+        this.lock.readLock().lock();
+        try {
+            Integer slot = this.slotsById.get(id);
+            return slot == null ? null : this.taskList.get(slot);
+        } finally {
+            this.lock.readLock().unlock();
+        }
     }
 
     /**
      * Marks a task as done.
      * @param taskIndex the index of the task to be marked as done.
+     * @return the marked task.
      */
-    public void markTaskAsDone(int taskIndex) {
-        this.get(taskIndex).markDone();
-        this.persist();
+    public Task markTaskAsDone(int taskIndex) {
+        this.lock.writeLock().lock();
+        try {
+            Task task = this.setDone(new int[] {this.slotAt(taskIndex)}, true).get(0);
+            this.persist(JournalEntry.mark(task.getId()));
+            return task;
+        } finally {
+            this.lock.writeLock().unlock();
+        }
     }
 
     /**
      * Marks a task as undone.
      * @param taskIndex the index of the task to be marked as undone.
+     * @return the unmarked task.
      */
-    public void markTaskAsUndone(int taskIndex) {
-        this.get(taskIndex).markUndone();
-        this.persist();
+    public Task markTaskAsUndone(int taskIndex) {
+        this.lock.writeLock().lock();
+        try {
+            Task task = this.setDone(new int[] {this.slotAt(taskIndex)}, false).get(0);
+            this.persist(JournalEntry.unmark(task.getId()));
+            return task;
+        } finally {
+            this.lock.writeLock().unlock();
+        }
     }
 
     /**
@@ -69,10 +178,133 @@ public class TaskManager {
      * @param taskIndex the index of the task to be deleted.
      */
     public Task delete(int taskIndex) {
-        assert taskIndex >= 0 && taskIndex < this.taskList.size() : "Task index is out of bounds";
-        Task removed = this.taskList.remove(taskIndex);
-        this.persist();
-        return removed;
+        this.lock.writeLock().lock();
+        try {
+            assert taskIndex >= 0 && taskIndex < this.size() : "Task index is out of bounds";
+            return this.removeSlots(new int[] {this.slotAt(taskIndex)}).get(0);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Marks several tasks as done as one change.
+     * @param taskIndices Strictly ascending 0-based indices of the tasks.
+     * @return the marked tasks, in list order.
+     * @throws IndexOutOfBoundsException If any index is past the end of the list; nothing is marked then.
+     */
+    public List<Task> markTasksAsDone(int[] taskIndices) {
+        this.lock.writeLock().lock();
+        try {
+            List<Task> marked = this.setDone(this.slotsAt(taskIndices), true);
+            this.persist(JournalEntry.mark(idsOf(marked)));
+            return marked;
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Marks several tasks as undone as one change.
+     * @param taskIndices Strictly ascending 0-based indices of the tasks.
+     * @return the unmarked tasks, in list order.
+     * @throws IndexOutOfBoundsException If any index is past the end of the list; nothing is unmarked then.
+     */
+    public List<Task> markTasksAsUndone(int[] taskIndices) {
+        this.lock.writeLock().lock();
+        try {
+            List<Task> unmarked = this.setDone(this.slotsAt(taskIndices), false);
+            this.persist(JournalEntry.unmark(idsOf(unmarked)));
+            return unmarked;
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Deletes several tasks with one pass over the list and one persisted change.
+     * @param taskIndices Strictly ascending 0-based indices of the tasks.
+     * @return the deleted tasks, in list order.
+     * @throws IndexOutOfBoundsException If any index is past the end of the list; nothing is deleted then.
+     */
+    public List<Task> deleteAll(int[] taskIndices) {
+        this.lock.writeLock().lock();
+        try {
+            return this.removeSlots(this.slotsAt(taskIndices));
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Deletes every task that is marked as done, as one change.
+     * @return the deleted tasks, in list order; empty if no task was done.
+     */
+    public List<Task> deleteDone() {
+        this.lock.writeLock().lock();
+        try {
+            if (this.doneSlots.cardinality() == 0) {
+                return new ArrayList<>();
+            }
+            int[] slots = new int[this.doneSlots.cardinality()];
+            int count = 0;
+            for (int slot = this.doneSlots.nextSetBit(0); slot >= 0; slot = this.doneSlots.nextSetBit(slot + 1)) {
+                slots[count++] = slot;
+            }
+            return this.removeSlots(slots);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Marks the tasks with the given ids as done, as one change.
+     * @param ids Ids of the tasks, in any order and without repeats.
+     * @return the marked tasks, in list order.
+     * @throws InvalidTaskIndexException If any id is unknown; nothing is marked then.
+     */
+    public List<Task> markTasksAsDoneById(long[] ids) {
+        this.lock.writeLock().lock();
+        try {
+            List<Task> marked = this.setDone(this.slotsOf(ids), true);
+            this.persist(JournalEntry.mark(idsOf(marked)));
+            return marked;
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Marks the tasks with the given ids as undone, as one change.
+     * @param ids Ids of the tasks, in any order and without repeats.
+     * @return the unmarked tasks, in list order.
+     * @throws InvalidTaskIndexException If any id is unknown; nothing is unmarked then.
+     */
+    public List<Task> markTasksAsUndoneById(long[] ids) {
+        this.lock.writeLock().lock();
+        try {
+            List<Task> unmarked = this.setDone(this.slotsOf(ids), false);
+            this.persist(JournalEntry.unmark(idsOf(unmarked)));
+            return unmarked;
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Deletes the tasks with the given ids as one change. Only the hash lookups and the tasks' own
+     * slots are touched, however long the list is.
+     * @param ids Ids of the tasks, in any order and without repeats.
+     * @return the deleted tasks, in list order.
+     * @throws InvalidTaskIndexException If any id is unknown; nothing is deleted then.
+     */
+    public List<Task> deleteAllById(long[] ids) {
+        this.lock.writeLock().lock();
+        try {
+            return this.removeSlots(this.slotsOf(ids));
+        } finally {
+            this.lock.writeLock().unlock();
+        }
     }
 
     /**
@@ -81,7 +313,71 @@ public class TaskManager {
      * @return an integer denoting the number of tasks.
      */
     public int size() {
-        return this.taskList.size();
+        this.lock.readLock().lock();
+        try {
+            return this.taskList.size() - this.tombstoneCount;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reports the number of tasks marked as done, without visiting any task.
+     *
+     * @return the number of done tasks.
+     */
+    public int countDone() {
+        this.lock.readLock().lock();
+        try {
+            return this.doneSlots.cardinality();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reports the number of tasks not yet marked as done, without visiting any task.
+     *
+     * @return the number of undone tasks.
+     */
+    public int countUndone() {
+        this.lock.readLock().lock();
+        try {
+            return this.undoneSlots.cardinality();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lists only the done, or only the undone, tasks, numbered by their position in the whole list so that
+     * the numbers can still be used with commands such as mark or delete.
+     * Only the listed tasks' slots and the deleted slots before them are visited.
+     *
+     * @param isDone Whether to list the done tasks rather than the undone ones.
+     * @return the listing, or an empty string if there are no such tasks.
+     */
+    public String toStatusString(boolean isDone) {
+        this.lock.readLock().lock();
+        try {
+            SlotBitmap slots = isDone ? this.doneSlots : this.undoneSlots;
+            StringBuilder lst = new StringBuilder();
+            int emptyBefore = 0;
+            int empty = this.emptySlots.nextSetBit(0);
+            for (int slot = slots.nextSetBit(0); slot >= 0; slot = slots.nextSetBit(slot + 1)) {
+                while (empty >= 0 && empty < slot) {
+                    emptyBefore++;
+                    empty = this.emptySlots.nextSetBit(empty + 1);
+                }
+                if (lst.length() > 0) {
+                    lst.append("\n");
+                }
+                lst.append(slot - emptyBefore + 1).append(".").append(this.taskList.get(slot));
+            }
+            return lst.toString();
+        } finally {
+            this.lock.readLock().unlock();
+        }
     }
 
     /**
@@ -91,14 +387,99 @@ public class TaskManager {
      * @return a list of matching tasks.
      */
     public List<Task> find(String keyword) throws NoTasksFoundException {
-        assert keyword != null && !keyword.isBlank() : "Keyword to find must not be blank";
-        String lowered = keyword.toLowerCase();
-        List<Task> matches = new ArrayList<>();
-        for (Task task : this.taskList) {
-            if (task.getDescription().toLowerCase().contains(lowered)) {
-                matches.add(task);
+        this.lock.readLock().lock();
+        try {
+            assert keyword != null && !keyword.isBlank() : "Keyword to find must not be blank";
+            String lowered = keyword.toLowerCase();
+            List<Task> matches = this.isTrigramIndexEnabled ? this.trigramIndex.find(lowered) : null;
+            if (matches == null) {
+                matches = new ArrayList<>();
+                for (Task task : this.taskList) {
+                    if (task != null && task.getDescription().toLowerCase().contains(lowered)) {
+                        matches.add(task);
+                    }
+                }
             }
+            return requireMatches(matches);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds all tasks containing the given whole word in their descriptions, using the word index.
+     * Queries that are not a single word fall back to {@link #find(String)}.
+     *
+     * @param word given description word.
+     * @return a list of matching tasks.
+     */
+    public List<Task> findWord(String word) throws NoTasksFoundException {
+        this.lock.readLock().lock();
+        try {
+            assert word != null && !word.isBlank() : "Word to find must not be blank";
+            if (!TokenIndex.isWord(word)) {
+                return find(word);
+            }
+            return requireMatches(this.tokenIndex.findWord(word));
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds all tasks containing a word starting with the given prefix, using the word index.
+     * Queries that are not a single word fall back to {@link #find(String)}.
+     *
+     * @param prefix given description word prefix.
+     * @return a list of matching tasks.
+     */
+    public List<Task> findPrefix(String prefix) throws NoTasksFoundException {
+        this.lock.readLock().lock();
+        try {
+            assert prefix != null && !prefix.isBlank() : "Prefix to find must not be blank";
+            if (!TokenIndex.isWord(prefix)) {
+                return find(prefix);
+            }
+            return requireMatches(this.tokenIndex.findPrefix(prefix));
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds all deadlines due, and events starting, on or before the given date.
+     *
+     * @param date last date, inclusive.
+     * @return matching tasks ordered by date.
+     */
+    public List<Task> findDueBy(LocalDate date) throws NoTasksFoundException {
+        this.lock.readLock().lock();
+        try {
+            assert date != null : "Date must not be null";
+            return requireMatches(this.dateIndex.findUpTo(date));
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds all deadlines due, and events starting, between the given dates.
+     *
+     * @param from first date, inclusive.
+     * @param to last date, inclusive.
+     * @return matching tasks ordered by date.
+     */
+    public List<Task> findBetween(LocalDate from, LocalDate to) throws NoTasksFoundException {
+        this.lock.readLock().lock();
+        try {
+            assert from != null && to != null : "Dates must not be null";
+            return requireMatches(this.dateIndex.findBetween(from, to));
+        } finally {
+            this.lock.readLock().unlock();
         }
+    }
+
+    private List<Task> requireMatches(List<Task> matches) throws NoTasksFoundException {
         if (matches.isEmpty()) {
             throw new NoTasksFoundException();
         }
@@ -110,45 +491,551 @@ public class TaskManager {
      * Tasks without dates stay after dated tasks; equal dates keep their existing order.
      */
     public void sortByDate() {
-        this.taskList.sort((taskA, taskB) -> {
-            LocalDate dateA = taskA.getSortDate();
-            LocalDate dateB = taskB.getSortDate();
+        this.lock.writeLock().lock();
+        try {
+            this.compact();
+            this.taskList.sort(Task.DATE_ORDER);
+            this.slotVersion++;
+            this.reindexSlots(0);
+            this.rebuildStatus();
+            this.taskOrder.reset(this.taskList);
+            this.persist(JournalEntry.sort());
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
 
-            if (dateA == null && dateB == null) {
-                return 0;
+    /**
+     * Turns "keep sorted" mode on or off. While on, a date-ordered view of the tasks is kept up to date
+     * as tasks are added and removed, without reordering (or rewriting) the stored list.
+     * @param isKeptSorted Whether to maintain the date-ordered view.
+     */
+    public void setKeptSorted(boolean isKeptSorted) {
+        this.lock.writeLock().lock();
+        try {
+            if (isKeptSorted && !this.isKeptSorted) {
+                List<Task> tasks = this.liveTasks();
+                rebuildIndex("sorted view", tasks.size(), () -> this.sortedView.rebuild(tasks));
+            } else if (!isKeptSorted) {
+                this.sortedView.clear();
             }
-            if (dateA == null) {
-                return 1;
+            this.isKeptSorted = isKeptSorted;
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isKeptSorted() {
+        this.lock.readLock().lock();
+        try {
+            return this.isKeptSorted;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lists tasks in date order, numbered by their position in the stored list so that the numbers
+     * can still be used with commands such as mark or delete.
+     * Requires "keep sorted" mode to be on.
+     *
+     * @return the date-ordered listing.
+     */
+    public String toSortedString() {
+        this.lock.readLock().lock();
+        try {
+            assert this.isKeptSorted : "Sorted view is only maintained in keep sorted mode";
+            if (this.size() == 0) {
+                return " (no tasks yet)";
             }
-            if (dateB == null) {
-                return -1;
+            IdentityHashMap<Task, Integer> numbers = new IdentityHashMap<>(this.size());
+            int number = 0;
+            for (Task task : this.taskList) {
+                if (task != null) {
+                    numbers.put(task, ++number);
+                }
             }
-            return dateA.compareTo(dateB);
+            StringBuilder lst = new StringBuilder();
+            List<Task> sorted = this.sortedView.asList();
+            for (int i = 0; i < sorted.size(); i++) {
+                Task task = sorted.get(i);
+                lst.append(numbers.get(task)).append(".").append(task);
+                if (i != sorted.size() - 1) {
+                    lst.append("\n");
+                }
+            }
+            return lst.toString();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lists tasks in list order, each followed by its id, e.g. {@code "1.[T][ ] read book (#4)"}.
+     *
+     * @return the listing with ids.
+     */
+    public String toIdString() {
+        this.lock.readLock().lock();
+        try {
+            if (this.size() == 0) {
+                return " (no tasks yet)";
+            }
+            StringBuilder lst = new StringBuilder();
+            int number = 0;
+            for (Task task : this.taskList) {
+                if (task == null) {
+                    continue;
+                }
+                if (number > 0) {
+                    lst.append("\n");
+                }
+                lst.append(++number).append(".").append(task).append(" (#").append(task.getId()).append(")");
+            }
+            return lst.toString();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Turns the trigram index used by {@link #find(String)} on or off. It is off until turned on, as it
+     * costs several times the memory of the descriptions it covers.
+     * Turning it off releases its memory; turning it on rebuilds it from the task list.
+     * @param isEnabled Whether substring searches should use the trigram index.
+     */
+    public void setTrigramIndexEnabled(boolean isEnabled) {
+        this.lock.writeLock().lock();
+        try {
+            if (isEnabled && !this.isTrigramIndexEnabled) {
+                List<Task> tasks = this.liveTasks();
+                rebuildIndex("trigram", tasks.size(), () -> this.trigramIndex.rebuild(tasks));
+            } else if (!isEnabled) {
+                this.trigramIndex.clear();
+            }
+            this.isTrigramIndexEnabled = isEnabled;
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isTrigramIndexEnabled() {
+        this.lock.readLock().lock();
+        try {
+            return this.isTrigramIndexEnabled;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reports the size of the trigram index, so its memory overhead can be weighed against its speed-up.
+     *
+     * @return a one-line summary of trigram count, postings and estimated heap use.
+     */
+    public String describeTrigramIndex() {
+        this.lock.readLock().lock();
+        try {
+            if (!this.isTrigramIndexEnabled) {
+                return "Trigram index is off.";
+            }
+            return String.format("Trigram index is on: %,d trigrams, %,d postings, about %,d KB for %,d tasks.",
+                    this.trigramIndex.getTrigramCount(), this.trigramIndex.getPostingCount(),
+                    this.trigramIndex.estimateBytes() / 1024, this.size());
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Starts applying mutations in memory only, until {@link #commitBatch()} persists them all at once.
+     * Meant for bulk imports, where writing after every mutation dominates the run time.
+     */
+    public void beginBatch() {
+        // Drain earlier mutations first, so the batch's single snapshot is the only write in flight.
+        this.flush();
+        this.lock.writeLock().lock();
+        try {
+            assert !this.isInBatch : "A batch is already in progress";
+            this.isInBatch = true;
+            this.hasBatchChanges = false;
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Persists every mutation made since {@link #beginBatch()} with one snapshot write,
+     * and resumes persisting mutations as they happen.
+     * @return whether anything was written.
+     */
+    public boolean commitBatch() {
+        this.lock.writeLock().lock();
+        try {
+            assert this.isInBatch : "No batch is in progress";
+            this.isInBatch = false;
+            if (!this.hasBatchChanges) {
+                return false;
+            }
+            if (this.writer != null) {
+                this.writer.requestSnapshot();
+            } else {
+                this.storage.save(this.liveTasks());
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+        this.flush();
+        return true;
+    }
+
+    /**
+     * Blocks until every mutation made so far has been written to storage.
+     * Returns immediately when mutations are persisted synchronously.
+     */
+    public void flush() {
+        if (this.writer != null) {
+            this.writer.flush();
+        }
+    }
+
+    /**
+     * Flushes outstanding mutations and stops the background writer, if any.
+     */
+    public void close() {
+        if (this.writer != null) {
+            this.writer.close();
+        }
+    }
+
+    private void loadTasks() {
+        this.taskList.addAll(this.storage.load());
+        int taskCount = this.taskList.size();
+        rebuildIndex("slots", taskCount, () -> this.reindexSlots(0));
+        this.liveSlots.reset(taskCount);
+        rebuildIndex("done status", taskCount, this::rebuildStatus);
+        this.taskOrder.reset(this.taskList);
+        rebuildIndex("token", taskCount, () -> this.tokenIndex.rebuild(this.taskList));
+        rebuildIndex("date", taskCount, () -> this.dateIndex.rebuild(this.taskList));
+        if (this.isKeptSorted) {
+            rebuildIndex("sorted view", taskCount, () -> this.sortedView.rebuild(this.taskList));
+        }
+        if (this.isTrigramIndexEnabled) {
+            rebuildIndex("trigram", taskCount, () -> this.trigramIndex.rebuild(this.taskList));
+        }
+    }
+
+    /**
+     * Runs an index rebuild, reporting it to the flight recorder.
+     */
+    private static void rebuildIndex(String index, int taskCount, Runnable rebuild) {
+        IndexRebuildEvent event = new IndexRebuildEvent();
+        event.begin();
+        rebuild.run();
+        if (event.shouldCommit()) {
+            event.index = index;
+            event.taskCount = taskCount;
+            event.commit();
+        }
+    }
+
+    private void indexAdded(Task task) {
+        this.taskOrder.append(task);
+        this.tokenIndex.add(task);
+        this.dateIndex.add(task);
+        if (this.isKeptSorted) {
+            this.sortedView.add(task);
+        }
+        if (this.isTrigramIndexEnabled) {
+            this.trigramIndex.add(task);
+        }
+    }
+
+    private void trackStatus(int slot, Task task) {
+        if (task.isDone()) {
+            this.doneSlots.set(slot);
+            this.undoneSlots.clear(slot);
+        } else {
+            this.undoneSlots.set(slot);
+            this.doneSlots.clear(slot);
+        }
+    }
+
+    /**
+     * Refills the done, undone and empty slot bitmaps from the task list, e.g. after tasks change slots.
+     */
+    private void rebuildStatus() {
+        this.doneSlots.clear();
+        this.undoneSlots.clear();
+        this.emptySlots.clear();
+        for (int slot = 0; slot < this.taskList.size(); slot++) {
+            Task task = this.taskList.get(slot);
+            if (task == null) {
+                this.emptySlots.set(slot);
+            } else {
+                this.trackStatus(slot, task);
+            }
+        }
+    }
+
+    /**
+     * Marks the tasks in the given slots as done or undone, keeping the status bitmaps in step.
+     */
+    private List<Task> setDone(int[] slots, boolean isDone) {
+        List<Task> tasks = this.tasksAt(slots);
+        for (int i = 0; i < slots.length; i++) {
+            Task task = tasks.get(i);
+            if (isDone) {
+                task.markDone();
+            } else {
+                task.markUndone();
+            }
+            this.trackStatus(slots[i], task);
+        }
+        return tasks;
+    }
+
+    /**
+     * Finds the slot holding the task at the given position, or the end of the list if there is none.
+     */
+    private int slotOrEnd(int taskIndex) {
+        if (this.tombstoneCount == 0) {
+            return Math.min(taskIndex, this.taskList.size());
+        }
+        return taskIndex < this.liveSlots.liveCount() ? this.liveSlots.slotOf(taskIndex) : this.taskList.size();
+    }
+
+    /**
+     * Finds the slot of the task at the given position, skipping over deleted slots.
+     */
+    private int slotAt(int taskIndex) {
+        return this.slotsAt(new int[] {taskIndex})[0];
+    }
+
+    /**
+     * Finds the slots of the tasks at the given positions, failing before anything is changed if one is
+     * out of bounds. Without deleted slots, positions are slots; otherwise each is looked up in the live slot count.
+     * @param taskIndices Strictly ascending 0-based positions.
+     */
+    private int[] slotsAt(int[] taskIndices) {
+        if (taskIndices.length == 0) {
+            throw new IndexOutOfBoundsException("No task numbers were given.");
+        }
+        if (taskIndices[0] < 0 || taskIndices[taskIndices.length - 1] >= this.size()) {
+            throw new IndexOutOfBoundsException("Invalid task number.");
+        }
+        if (this.tombstoneCount == 0) {
+            return taskIndices.clone();
+        }
+        int[] slots = new int[taskIndices.length];
+        for (int i = 0; i < taskIndices.length; i++) {
+            slots[i] = this.liveSlots.slotOf(taskIndices[i]);
+        }
+        return slots;
+    }
+
+    /**
+     * Finds the slots of the tasks with the given ids, in ascending order.
+     * @throws InvalidTaskIndexException naming every unknown id.
+     */
+    private int[] slotsOf(long[] ids) {
+        if (ids.length == 0) {
+            throw new IndexOutOfBoundsException("No task numbers were given.");
+        }
+        int[] slots = new int[ids.length];
+        StringJoiner unknown = new StringJoiner(", ");
+        for (int i = 0; i < ids.length; i++) {
+            Integer slot = this.slotsById.get(ids[i]);
+            if (slot == null) {
+                unknown.add("#" + ids[i]);
+            } else {
+                slots[i] = slot;
+            }
+        }
+        if (unknown.length() > 0) {
+            throw new InvalidTaskIndexException(unknown.toString());
+        }
+        Arrays.sort(slots);
+        return slots;
+    }
+
+    private List<Task> tasksAt(int[] slots) {
+        List<Task> tasks = new ArrayList<>(slots.length);
+        for (int slot : slots) {
+            tasks.add(this.taskList.get(slot));
+        }
+        return tasks;
+    }
+
+    private static long[] idsOf(List<Task> tasks) {
+        long[] ids = new long[tasks.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = tasks.get(i).getId();
+        }
+        return ids;
+    }
+
+    /**
+     * Leaves the given slots empty instead of shifting the tasks after them, and persists one delete.
+     */
+    private List<Task> removeSlots(int[] slots) {
+        List<Task> removed = this.tasksAt(slots);
+        for (int slot : slots) {
+            this.taskList.set(slot, null);
+            this.liveSlots.empty(slot);
+            this.doneSlots.clear(slot);
+            this.undoneSlots.clear(slot);
+            this.emptySlots.set(slot);
+        }
+        this.tombstoneCount += slots.length;
+        Set<Task> removedSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        removedSet.addAll(removed);
+        for (Task task : removed) {
+            this.slotsById.remove(task.getId());
+            this.taskOrder.remove(task);
+            this.tokenIndex.remove(task);
+            this.dateIndex.remove(task);
+            if (this.isTrigramIndexEnabled) {
+                this.trigramIndex.remove(task);
+            }
+        }
+        if (this.isKeptSorted) {
+            this.sortedView.removeAll(removedSet);
+        }
+        this.persist(JournalEntry.delete(idsOf(removed)));
+        if (this.tombstoneCount * 2 > this.taskList.size()) {
+            this.compact();
+        }
+        return removed;
+    }
+
+    /**
+     * Squeezes out the empty slots left by deletes in one pass, renumbering only the tasks that moved.
+     */
+    private void compact() {
+        if (this.tombstoneCount == 0) {
+            return;
+        }
+        rebuildIndex("compaction", this.taskList.size() - this.tombstoneCount, () -> {
+            int firstEmpty = this.taskList.indexOf(null);
+            this.taskList.removeIf(task -> task == null);
+            this.liveSlots.reset(this.taskList.size());
+            this.tombstoneCount = 0;
+            this.slotVersion++;
+            this.reindexSlots(firstEmpty);
+            this.rebuildStatus();
         });
-        this.persist();
     }
 
-    private void persist() {
-        if (this.storage != null) {
-            this.storage.save(this.taskList);
+    private void reindexSlots(int fromSlot) {
+        for (int slot = fromSlot; slot < this.taskList.size(); slot++) {
+            this.slotsById.put(this.taskList.get(slot).getId(), slot);
+        }
+    }
+
+    /**
+     * Copies the tasks that have not been deleted, in list order.
+     */
+    private List<Task> liveTasks() {
+        if (this.tombstoneCount == 0) {
+            return new ArrayList<>(this.taskList);
+        }
+        List<Task> tasks = new ArrayList<>(this.size());
+        for (Task task : this.taskList) {
+            if (task != null) {
+                tasks.add(task);
+            }
         }
+        return tasks;
+    }
+
+    private void persist(JournalEntry entry) {
+        long start = Stats.startTimer();
+        if (this.isInBatch) {
+            this.hasBatchChanges = true;
+        } else if (this.writer != null) {
+            this.writer.submit(entry);
+        } else if (this.storage != null) {
+            this.storage.record(entry, this::liveTasks);
+        }
+        Stats.addPersistTime(start);
+    }
+
+    /**
+     * Copies the task list for the background writer.
+     * Mutations hold the write lock while submitting, so the copy and the sequence number agree.
+     */
+    private AsyncStorageWriter.Snapshot snapshot() {
+        this.lock.readLock().lock();
+        try {
+            return new AsyncStorageWriter.Snapshot(this.liveTasks(), this.writer.getSubmittedCount());
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes a numbered range of the task list, one task per line, without building the listing in memory.
+     * Tasks are copied a chunk at a time under the read lock and written out after it is released, so a
+     * slow sink never holds up mutations; a listing written while tasks are deleted may reflect them partway.
+     *
+     * @param out Sink for the listing; lines are separated by {@code "\n"}, with no trailing newline.
+     * @param fromIndex 0-based position of the first task to write.
+     * @param count Maximum number of tasks to write.
+     * @return the number of tasks written.
+     * @throws IOException If the sink fails.
+     */
+    public int writeTasks(Appendable out, int fromIndex, int count) throws IOException {
+        assert out != null : "Output must not be null";
+        assert fromIndex >= 0 && count >= 0 : "Listing range must not be negative";
+        long end = (long) fromIndex + count;
+        List<Task> chunk = new ArrayList<>(Math.min(count, WRITE_CHUNK_TASKS));
+        int position = fromIndex;
+        int slot = 0;
+        long version = -1;
+        while (position < end) {
+            chunk.clear();
+            this.lock.readLock().lock();
+            try {
+                if (version != this.slotVersion) {
+                    slot = this.slotOrEnd(position);
+                    version = this.slotVersion;
+                }
+                while (slot < this.taskList.size() && chunk.size() < WRITE_CHUNK_TASKS
+                        && position + chunk.size() < end) {
+                    Task task = this.taskList.get(slot++);
+                    if (task != null) {
+                        chunk.add(task);
+                    }
+                }
+            } finally {
+                this.lock.readLock().unlock();
+            }
+            if (chunk.isEmpty()) {
+                break;
+            }
+            for (Task task : chunk) {
+                if (position > fromIndex) {
+                    out.append('\n');
+                }
+                out.append(String.valueOf(++position)).append('.').append(task.toString());
+            }
+        }
+        return position - fromIndex;
     }
 
     @Override
     public String toString() {
         if (this.size() == 0) {
             return " (no tasks yet)";
-        } else {
-            StringBuilder lst = new StringBuilder();
-            for (int i = 0; i < this.size(); i++) {
-                lst.append((i + 1));
-                lst.append(".");
-                lst.append(this.get(i));
-                if (i != this.size() - 1) {
-                    lst.append("\n");
-                }
-            }
-            return lst.toString();
         }
+        StringBuilder lst = new StringBuilder();
+        try {
+            this.writeTasks(lst, 0, Integer.MAX_VALUE);
+        } catch (IOException e) {
+            // A StringBuilder never throws.
+            throw new UncheckedIOException(e);
+        }
+        return lst.toString();
     }
 }
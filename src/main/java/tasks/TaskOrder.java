@@ -0,0 +1,60 @@
+package tasks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Tracks the relative position of each task in the task list, so that search indexes can return
+ * their results in list order without scanning the list.
+ * Positions only need to be increasing along the list, so removals do not renumber anything.
+ */
+public class TaskOrder {
+    private final IdentityHashMap<Task, Long> positions = new IdentityHashMap<>();
+    private long nextPosition;
+
+    /**
+     * Records a task appended to the end of the task list.
+     * @param task The added task.
+     */
+    public void append(Task task) {
+        this.positions.put(task, this.nextPosition++);
+    }
+
+    /**
+     * Forgets a removed task.
+     * @param task The removed task.
+     * @return true if the task was tracked.
+     */
+    public boolean remove(Task task) {
+        return this.positions.remove(task) != null;
+    }
+
+    /**
+     * Renumbers all tasks, e.g. after a reload or a sort.
+     * @param tasks The full task list, in order.
+     */
+    public void reset(List<Task> tasks) {
+        this.positions.clear();
+        this.nextPosition = 0;
+        for (Task task : tasks) {
+            append(task);
+        }
+    }
+
+    public int size() {
+        return this.positions.size();
+    }
+
+    /**
+     * Copies the given tasks into a list sorted by their position in the task list.
+     * @param tasks Tracked tasks, in any order.
+     * @return the tasks in list order.
+     */
+    public List<Task> inListOrder(Collection<Task> tasks) {
+        List<Task> ordered = new ArrayList<>(tasks);
+        ordered.sort((taskA, taskB) -> Long.compare(this.positions.get(taskA), this.positions.get(taskB)));
+        return ordered;
+    }
+}
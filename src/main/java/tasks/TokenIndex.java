@@ -0,0 +1,128 @@
+package tasks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Inverted index from lower-cased description words to the tasks containing them.
+ * A word is a maximal run of letters and digits. Results are returned in task list order.
+ */
+public class TokenIndex {
+    private final TreeMap<String, Set<Task>> postings = new TreeMap<>();
+    private final TaskOrder order;
+
+    /**
+     * Creates an empty index.
+     * @param order Positions of tasks in the task list, maintained by the owner of the list.
+     */
+    public TokenIndex(TaskOrder order) {
+        assert order != null : "Task order must not be null";
+        this.order = order;
+    }
+
+    /**
+     * Checks whether a query is a single word that the index can answer.
+     * @param query Query string.
+     * @return true if the query consists only of letters and digits.
+     */
+    public static boolean isWord(String query) {
+        if (query.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < query.length(); i++) {
+            if (!Character.isLetterOrDigit(query.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Indexes a task.
+     * @param task The added task.
+     */
+    public void add(Task task) {
+        assert task != null : "Indexed task must not be null";
+        for (String word : words(task.getDescription())) {
+            this.postings.computeIfAbsent(word, key -> Collections.newSetFromMap(new IdentityHashMap<>())).add(task);
+        }
+    }
+
+    /**
+     * Removes a task from the index.
+     * @param task The removed task.
+     */
+    public void remove(Task task) {
+        for (String word : words(task.getDescription())) {
+            Set<Task> tasks = this.postings.get(word);
+            if (tasks != null) {
+                tasks.remove(task);
+                if (tasks.isEmpty()) {
+                    this.postings.remove(word);
+                }
+            }
+        }
+    }
+
+    /**
+     * Re-indexes the given tasks from scratch, e.g. after a reload.
+     * @param tasks The full task list.
+     */
+    public void rebuild(List<Task> tasks) {
+        this.postings.clear();
+        for (Task task : tasks) {
+            add(task);
+        }
+    }
+
+    /**
+     * Finds tasks containing the given word.
+     * @param word A word, as accepted by {@link #isWord(String)}.
+     * @return matching tasks in task list order.
+     */
+    public List<Task> findWord(String word) {
+        assert isWord(word) : "Only single words can be looked up";
+        Set<Task> tasks = this.postings.get(word.toLowerCase());
+        return tasks == null ? new ArrayList<>() : this.order.inListOrder(tasks);
+    }
+
+    /**
+     * Finds tasks containing a word that starts with the given prefix.
+     * @param prefix A word prefix, as accepted by {@link #isWord(String)}.
+     * @return matching tasks in task list order.
+     */
+    public List<Task> findPrefix(String prefix) {
+        assert isWord(prefix) : "Only single word prefixes can be looked up";
+        String lowered = prefix.toLowerCase();
+        Map<String, Set<Task>> matching = this.postings.subMap(lowered, true, lowered + Character.MAX_VALUE, false);
+        Set<Task> tasks = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Set<Task> posting : matching.values()) {
+            tasks.addAll(posting);
+        }
+        return this.order.inListOrder(tasks);
+    }
+
+    /**
+     * Splits a description into its distinct lower-cased words.
+     */
+    private static Set<String> words(String description) {
+        Set<String> words = new HashSet<>();
+        int start = -1;
+        for (int i = 0; i <= description.length(); i++) {
+            boolean isWordChar = i < description.length() && Character.isLetterOrDigit(description.charAt(i));
+            if (isWordChar && start < 0) {
+                start = i;
+            } else if (!isWordChar && start >= 0) {
+                words.add(description.substring(start, i).toLowerCase());
+                start = -1;
+            }
+        }
+        return words;
+    }
+}
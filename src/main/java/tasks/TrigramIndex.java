@@ -0,0 +1,155 @@
+package tasks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Index from every three-character substring (trigram) of lower-cased descriptions to the tasks
+ * containing it. A substring query narrows the candidates to the intersection of its trigrams'
+ * postings, and only those candidates are checked with {@code contains}.
+ */
+public class TrigramIndex {
+    public static final int GRAM_LENGTH = 3;
+    // Rough per-entry costs on a 64-bit JVM with compressed references.
+    private static final int BYTES_PER_TRIGRAM = 32 + 16 + 48 + 64;
+    private static final int BYTES_PER_POSTING = 12;
+
+    private final HashMap<Long, Set<Task>> postings = new HashMap<>();
+    private final TaskOrder order;
+    private long postingCount;
+
+    /**
+     * Creates an empty index.
+     * @param order Positions of tasks in the task list, maintained by the owner of the list.
+     */
+    public TrigramIndex(TaskOrder order) {
+        assert order != null : "Task order must not be null";
+        this.order = order;
+    }
+
+    /**
+     * Indexes a task.
+     * @param task The added task.
+     */
+    public void add(Task task) {
+        assert task != null : "Indexed task must not be null";
+        for (long trigram : trigrams(task.getDescription().toLowerCase())) {
+            Set<Task> tasks = this.postings.computeIfAbsent(trigram,
+                key -> Collections.newSetFromMap(new IdentityHashMap<>()));
+            if (tasks.add(task)) {
+                this.postingCount++;
+            }
+        }
+    }
+
+    /**
+     * Removes a task from the index.
+     * @param task The removed task.
+     */
+    public void remove(Task task) {
+        for (long trigram : trigrams(task.getDescription().toLowerCase())) {
+            Set<Task> tasks = this.postings.get(trigram);
+            if (tasks != null && tasks.remove(task)) {
+                this.postingCount--;
+                if (tasks.isEmpty()) {
+                    this.postings.remove(trigram);
+                }
+            }
+        }
+    }
+
+    /**
+     * Re-indexes the given tasks from scratch, e.g. after a reload.
+     * @param tasks The full task list.
+     */
+    public void rebuild(List<Task> tasks) {
+        clear();
+        for (Task task : tasks) {
+            add(task);
+        }
+    }
+
+    /**
+     * Drops every posting, releasing the index's memory.
+     */
+    public void clear() {
+        this.postings.clear();
+        this.postingCount = 0;
+    }
+
+    /**
+     * Finds tasks whose lower-cased description contains the given lower-cased keyword.
+     * @param loweredKeyword The keyword, already lower-cased.
+     * @return matching tasks in list order, or null if the keyword is too short for the index to answer.
+     */
+    public List<Task> find(String loweredKeyword) {
+        if (loweredKeyword.length() < GRAM_LENGTH) {
+            return null;
+        }
+        Set<Task> smallest = null;
+        List<Set<Task>> others = new ArrayList<>();
+        for (long trigram : trigrams(loweredKeyword)) {
+            Set<Task> tasks = this.postings.get(trigram);
+            if (tasks == null) {
+                return new ArrayList<>();
+            }
+            if (smallest == null || tasks.size() < smallest.size()) {
+                if (smallest != null) {
+                    others.add(smallest);
+                }
+                smallest = tasks;
+            } else {
+                others.add(tasks);
+            }
+        }
+        List<Task> matches = new ArrayList<>();
+        for (Task candidate : smallest) {
+            if (isInAll(candidate, others) && candidate.getDescription().toLowerCase().contains(loweredKeyword)) {
+                matches.add(candidate);
+            }
+        }
+        return this.order.inListOrder(matches);
+    }
+
+    private static boolean isInAll(Task task, List<Set<Task>> postingSets) {
+        for (Set<Task> tasks : postingSets) {
+            if (!tasks.contains(task)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getTrigramCount() {
+        return this.postings.size();
+    }
+
+    public long getPostingCount() {
+        return this.postingCount;
+    }
+
+    /**
+     * Estimates the heap used by the index, for deciding whether it is worth keeping enabled.
+     *
+     * @return approximate size in bytes.
+     */
+    public long estimateBytes() {
+        return (long) this.postings.size() * BYTES_PER_TRIGRAM + this.postingCount * BYTES_PER_POSTING;
+    }
+
+    /**
+     * Collects the distinct trigrams of a string, each packed into a long as three 16-bit chars.
+     */
+    private static Set<Long> trigrams(String text) {
+        Set<Long> trigrams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            trigrams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+        return trigrams;
+    }
+}
@@ -0,0 +1,102 @@
+package display;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import dooki.DookiBot;
+
+/**
+ * Tests for CommandDispatcher. Covered are:
+ * - responses arrive in submission order, in fewer UI tasks than commands
+ * - the UI thread stalls for less time than when it runs the commands itself.
+ */
+public class CommandDispatcherTest {
+    private static final Path DATA_PATH = Path.of("data", "dooki.txt");
+    private static final Path JOURNAL_PATH = Path.of("data", "dooki.journal");
+
+    private DookiBot dookiBot;
+
+    // Adapted from https://www.baeldung.com/junit-5
+    @BeforeEach
+    void startTest() throws IOException {
+        Files.deleteIfExists(DATA_PATH);
+        Files.deleteIfExists(JOURNAL_PATH);
+        this.dookiBot = new DookiBot();
+    }
+
+    // Adapted from https://www.baeldung.com/junit-5
+    @AfterEach
+    void endTest() throws IOException {
+        this.dookiBot.shutdown();
+        Files.deleteIfExists(DATA_PATH);
+        Files.deleteIfExists(JOURNAL_PATH);
+    }
+
+    @Test
+    void responsesArriveInOrderAndAreCoalesced() throws InterruptedException {
+        List<Runnable> uiTasks = new ArrayList<>();
+        List<String> responses = new ArrayList<>();
+        CountDownLatch answered = new CountDownLatch(100);
+        CommandDispatcher dispatcher = new CommandDispatcher(this.dookiBot, task -> {
+            synchronized (uiTasks) {
+                uiTasks.add(task);
+            }
+        }, (response, isExit) -> {
+            responses.add(response);
+            answered.countDown();
+        });
+        for (int i = 0; i < 100; i++) {
+            dispatcher.submit("todo task " + i);
+        }
+        // Nothing reaches the UI until its executor runs the pulses, so responses pile up meanwhile.
+        int pulses = 0;
+        while (answered.getCount() > 0) {
+            Runnable task;
+            synchronized (uiTasks) {
+                task = uiTasks.isEmpty() ? null : uiTasks.remove(0);
+            }
+            if (task == null) {
+                Thread.sleep(5);
+            } else {
+                task.run();
+                pulses++;
+            }
+        }
+        dispatcher.close();
+
+        assertTrue(answered.await(1, TimeUnit.SECONDS));
+        assertTrue(pulses < 100, pulses + " UI tasks");
+        for (int i = 0; i < 100; i++) {
+            assertTrue(responses.get(i).contains("task " + i + "\n"), responses.get(i));
+        }
+        assertEquals(100, this.dookiBot.getResponse("list").split("\n").length - 1);
+    }
+
+    @Test
+    void dispatchingStallsTheUiThreadLessThanAnsweringOnIt() throws InterruptedException {
+        this.dookiBot.beginBatch();
+        for (int i = 0; i < 5000; i++) {
+            this.dookiBot.getResponse("todo stall task " + i);
+        }
+        this.dookiBot.commitBatch();
+        List<String> commands = FxStallHarness.mixedCommands(10);
+
+        FxStallHarness.Stalls onUiThread = FxStallHarness.measure(this.dookiBot, commands, false);
+        FxStallHarness.Stalls dispatched = FxStallHarness.measure(this.dookiBot, commands, true);
+
+        assertTrue(dispatched.getMillisPerCommand() < onUiThread.getMillisPerCommand(),
+                dispatched + " vs " + onUiThread);
+    }
+}
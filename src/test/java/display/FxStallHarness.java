@@ -0,0 +1,158 @@
+package display;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import dooki.DookiBot;
+
+/**
+ * Measures how long the UI thread is blocked per command, with commands run on the UI thread as before
+ * and with them dispatched to the background. A single-thread executor stands in for the FX thread,
+ * so the harness runs headless; every task it runs counts as a stall for its whole duration.
+ */
+public class FxStallHarness {
+    private static final int TASK_COUNT = 20_000;
+    private static final int ROUNDS = 50;
+
+    /**
+     * Stall times of the UI thread's tasks during one run.
+     */
+    public static class Stalls {
+        private final long[] nanos;
+        private final int commandCount;
+
+        Stalls(long[] nanos, int commandCount) {
+            this.nanos = nanos.clone();
+            this.commandCount = commandCount;
+            Arrays.sort(this.nanos);
+        }
+
+        public int getTaskCount() {
+            return this.nanos.length;
+        }
+
+        public long getMaxNanos() {
+            return this.nanos.length == 0 ? 0 : this.nanos[this.nanos.length - 1];
+        }
+
+        public double getMillisPerCommand() {
+            return Arrays.stream(this.nanos).sum() / 1e6 / this.commandCount;
+        }
+
+        @Override
+        public String toString() {
+            long p50 = this.nanos.length == 0 ? 0 : this.nanos[this.nanos.length / 2];
+            return String.format("%5d UI tasks, p50 %8.3f ms, max %8.3f ms, %8.3f ms per command",
+                    this.nanos.length, p50 / 1e6, getMaxNanos() / 1e6, getMillisPerCommand());
+        }
+    }
+
+    /**
+     * Loads a large list, then times a mix of commands both ways.
+     * @param args unused.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        DookiBot dookiBot = new DookiBot();
+        try {
+            dookiBot.beginBatch();
+            for (int i = 0; i < TASK_COUNT; i++) {
+                dookiBot.getResponse("todo stall task " + i);
+            }
+            dookiBot.commitBatch();
+            List<String> commands = mixedCommands(ROUNDS);
+            System.out.println("on UI thread: " + measure(dookiBot, commands, false));
+            System.out.println("dispatched:   " + measure(dookiBot, commands, true));
+        } finally {
+            dookiBot.shutdown();
+        }
+    }
+
+    /**
+     * Builds a command mix of listings, searches and mutations.
+     * @param rounds How many times to repeat the mix.
+     * @return the commands.
+     */
+    public static List<String> mixedCommands(int rounds) {
+        List<String> commands = new ArrayList<>();
+        for (int i = 0; i < rounds; i++) {
+            commands.add("list");
+            commands.add("find task 1");
+            commands.add("todo stall extra " + i);
+            commands.add("mark 1");
+        }
+        return commands;
+    }
+
+    /**
+     * Submits the commands in one burst from the stand-in UI thread and waits for every response.
+     * @param dookiBot Bot to run the commands on.
+     * @param commands Commands to run.
+     * @param isDispatched Whether to use a {@link CommandDispatcher}, rather than answering on the UI thread.
+     * @return the UI thread's stall times.
+     */
+    public static Stalls measure(DookiBot dookiBot, List<String> commands, boolean isDispatched)
+            throws InterruptedException {
+        ExecutorService uiThread = Executors.newSingleThreadExecutor();
+        List<Long> stalls = new ArrayList<>();
+        CountDownLatch answered = new CountDownLatch(commands.size());
+        TimedExecutor ui = new TimedExecutor(uiThread, stalls);
+        CommandDispatcher dispatcher = isDispatched
+                ? new CommandDispatcher(dookiBot, ui, (response, isExit) -> answered.countDown())
+                : null;
+        try {
+            for (String command : commands) {
+                ui.execute(() -> {
+                    if (dispatcher != null) {
+                        dispatcher.submit(command);
+                    } else {
+                        dookiBot.getResponse(command);
+                        answered.countDown();
+                    }
+                });
+            }
+            if (!answered.await(5, TimeUnit.MINUTES)) {
+                throw new IllegalStateException("Timed out waiting for responses");
+            }
+        } finally {
+            if (dispatcher != null) {
+                dispatcher.close();
+            }
+            uiThread.shutdown();
+            uiThread.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        synchronized (stalls) {
+            return new Stalls(stalls.stream().mapToLong(Long::longValue).toArray(), commands.size());
+        }
+    }
+
+    /**
+     * Runs tasks on the stand-in UI thread, recording how long each one takes.
+     */
+    private static class TimedExecutor implements Executor {
+        private final ExecutorService thread;
+        private final List<Long> stalls;
+
+        TimedExecutor(ExecutorService thread, List<Long> stalls) {
+            this.thread = thread;
+            this.stalls = stalls;
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            this.thread.execute(() -> {
+                long start = System.nanoTime();
+                task.run();
+                long stall = System.nanoTime() - start;
+                synchronized (this.stalls) {
+                    this.stalls.add(stall);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package display;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for Transcript. Covered are:
+ * - the window stays within its cap
+ * - spilled messages are read back intact, in order
+ * - pending placeholders are never spilled, so responses replace them in place.
+ */
+public class TranscriptTest {
+    private static final Path HISTORY_PATH = Path.of("data", "dooki.history");
+
+    private final List<ChatMessage> window = new ArrayList<>();
+
+    // Adapted from https://www.baeldung.com/junit-5
+    @BeforeEach
+    void startTest() throws IOException {
+        Files.createDirectories(HISTORY_PATH.getParent());
+        Files.writeString(HISTORY_PATH, "stale\n");
+    }
+
+    // Adapted from https://www.baeldung.com/junit-5
+    @AfterEach
+    void endTest() throws IOException {
+        Files.deleteIfExists(HISTORY_PATH);
+    }
+
+    @Test
+    void windowStaysWithinCapAndSpillsOldest() {
+        Transcript transcript = new Transcript(this.window, HISTORY_PATH, 4);
+        for (int i = 0; i < 10; i++) {
+            transcript.append(new ChatMessage("message " + i, i % 2 == 0));
+        }
+
+        assertEquals(4, this.window.size());
+        assertEquals("message 6", this.window.get(0).getText());
+        assertEquals(6, transcript.getSpilledCount());
+        assertTrue(transcript.hasOlder());
+        transcript.close();
+    }
+
+    @Test
+    void scrollingBackReadsSpilledMessagesIntact() {
+        Transcript transcript = new Transcript(this.window, HISTORY_PATH, 2);
+        transcript.append(new ChatMessage("multi\nline \\n text", true));
+        transcript.append(new ChatMessage("caf\u00e9", false));
+        transcript.append(new ChatMessage("", true));
+        transcript.append(new ChatMessage("latest", false));
+
+        assertEquals(1, transcript.loadOlder(1));
+        assertEquals("caf\u00e9", this.window.get(0).getText());
+        assertEquals(1, transcript.loadOlder(5));
+        assertEquals("multi\nline \\n text", this.window.get(0).getText());
+        assertTrue(this.window.get(0).isUser());
+        assertFalse(transcript.hasOlder());
+        assertEquals(0, transcript.loadOlder(5));
+
+        transcript.append(new ChatMessage("newest", true));
+        assertEquals(List.of("latest", "newest"), this.window.stream().map(ChatMessage::getText).toList());
+        assertEquals(3, transcript.getSpilledCount());
+        assertEquals(3, transcript.loadOlder(4));
+        assertEquals("", this.window.get(2).getText());
+        assertEquals(5, this.window.size());
+        transcript.close();
+    }
+
+    @Test
+    void pendingPlaceholdersStayUntilReplaced() {
+        Transcript transcript = new Transcript(this.window, HISTORY_PATH, 2);
+        ChatMessage pending = new ChatMessage("\u2026", false);
+        transcript.append(new ChatMessage("slow command", true));
+        transcript.appendPending(pending);
+        for (int i = 0; i < 3; i++) {
+            transcript.append(new ChatMessage("message " + i, true));
+        }
+        assertEquals(1, transcript.getSpilledCount());
+        assertTrue(this.window.get(0) == pending);
+
+        transcript.replace(pending, new ChatMessage("slow response", false));
+        assertEquals(List.of("message 1", "message 2"), this.window.stream().map(ChatMessage::getText).toList());
+        assertEquals(3, transcript.loadOlder(5));
+        assertEquals(List.of("slow command", "slow response", "message 0", "message 1", "message 2"),
+                this.window.stream().map(ChatMessage::getText).toList());
+        transcript.close();
+    }
+}
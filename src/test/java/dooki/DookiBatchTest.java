@@ -0,0 +1,98 @@
+package dooki;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import parser.StorageParser;
+import storage.Storage;
+import tasks.Task;
+
+/**
+ * Tests for batch mode. Covered are:
+ * - failed commands are reported with their line numbers
+ * - every change is saved at the end of the batch
+ * - a batch cut short still saves what it applied and ends batch mode.
+ */
+public class DookiBatchTest {
+    private static final Path DATA_PATH = Path.of("data", "dooki.txt");
+    private static final Path JOURNAL_PATH = Path.of("data", "dooki.journal");
+    private static final Path BATCH_PATH = Path.of("data", "batch.txt");
+
+    // Adapted from https://www.baeldung.com/junit-5
+    @BeforeEach
+    void startTest() throws IOException {
+        Files.deleteIfExists(DATA_PATH);
+        Files.deleteIfExists(JOURNAL_PATH);
+        Files.createDirectories(DATA_PATH.getParent());
+    }
+
+    // Adapted from https://www.baeldung.com/junit-5
+    @AfterEach
+    void endTest() throws IOException {
+        Files.deleteIfExists(DATA_PATH);
+        Files.deleteIfExists(JOURNAL_PATH);
+        Files.deleteIfExists(BATCH_PATH);
+    }
+
+    @Test
+    void runReportsFailuresAndSavesOnce() throws IOException {
+        Files.write(BATCH_PATH, List.of("todo read book", "", "mark 5", "deadline return book /by 2019-12-02",
+                "mark 1", "bye", "todo after bye"));
+        DookiBot dookiBot = new DookiBot(false);
+        StringWriter output = new StringWriter();
+
+        DookiBatch.Summary summary = new DookiBatch(dookiBot).run(BATCH_PATH, output);
+        dookiBot.shutdown();
+
+        assertEquals(5, summary.getCommandCount());
+        assertEquals(1, summary.getErrorCount());
+        assertTrue(output.toString().startsWith("Line 3: mark 5"));
+        assertTrue(Files.notExists(JOURNAL_PATH));
+        List<Task> saved = new Storage(new StorageParser(), true).load();
+        assertEquals(2, saved.size());
+        assertTrue(saved.get(0).isDone());
+    }
+
+    @Test
+    void failedRunSavesAppliedCommandsAndEndsBatchMode() throws IOException {
+        Files.write(BATCH_PATH, List.of("todo read book", "mark 9", "todo never run"));
+        DookiBot dookiBot = new DookiBot(false);
+        Writer brokenOutput = new Writer() {
+            @Override
+            public void write(char[] buffer, int offset, int length) throws IOException {
+                throw new IOException("Output is closed");
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        IOException thrown = assertThrows(IOException.class, () ->
+                new DookiBatch(dookiBot).run(BATCH_PATH, brokenOutput));
+        assertTrue(thrown.getMessage().contains("Stopped after 2 command(s)"));
+        assertEquals(1, new Storage(new StorageParser(), true).load().size());
+
+        dookiBot.getResponse("todo after batch");
+        dookiBot.shutdown();
+        List<Task> saved = new Storage(new StorageParser(), true).load();
+        assertEquals(2, saved.size());
+        assertEquals("after batch", saved.get(1).getDescription());
+    }
+}
@@ -0,0 +1,113 @@
+package dooki;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import stats.Stats;
+
+/**
+ * Tests for DookiBot. Covered are:
+ * - paged listings
+ * - done/undone listings and the summary
+ * - streamed responses match the buffered ones
+ * - command latency stats.
+ */
+public class DookiBotTest {
+    private static final Path DATA_PATH = Path.of("data", "dooki.txt");
+    private static final Path JOURNAL_PATH = Path.of("data", "dooki.journal");
+
+    private DookiBot dookiBot;
+
+    // Adapted from https://www.baeldung.com/junit-5
+    @BeforeEach
+    void startTest() throws IOException {
+        Files.deleteIfExists(DATA_PATH);
+        Files.deleteIfExists(JOURNAL_PATH);
+        this.dookiBot = new DookiBot(false);
+        for (int i = 1; i <= 45; i++) {
+            this.dookiBot.getResponse("todo task " + i);
+        }
+    }
+
+    // Adapted from https://www.baeldung.com/junit-5
+    @AfterEach
+    void endTest() throws IOException {
+        this.dookiBot.shutdown();
+        Files.deleteIfExists(DATA_PATH);
+        Files.deleteIfExists(JOURNAL_PATH);
+    }
+
+    @Test
+    void listPagesAreNumberedByPosition() {
+        String page = this.dookiBot.getResponse("list 3");
+        assertTrue(page.startsWith("Here are the tasks in your list (page 3 of 3):\n41.[T][ ] task 41\n"));
+        assertTrue(page.endsWith("45.[T][ ] task 45"));
+
+        this.dookiBot.getResponse("delete 1-10");
+        assertEquals("Here are the tasks in your list (page 2 of 4):\n"
+                + "11.[T][ ] task 21\n12.[T][ ] task 22\n13.[T][ ] task 23\n14.[T][ ] task 24\n15.[T][ ] task 25\n"
+                + "16.[T][ ] task 26\n17.[T][ ] task 27\n18.[T][ ] task 28\n19.[T][ ] task 29\n20.[T][ ] task 30",
+                this.dookiBot.getResponse("list 2 10"));
+        assertEquals("[ERROR] Your list only has 4 page(s) of 10 tasks!", this.dookiBot.getResponse("list 5 10"));
+        assertTrue(DookiBot.isError(this.dookiBot.getResponse("list 0")));
+        assertTrue(DookiBot.isError(this.dookiBot.getResponse("list all")));
+    }
+
+    @Test
+    void doneListingsAndSummaryFollowMarks() {
+        assertEquals("There are no done tasks in your list.", this.dookiBot.getResponse("list done"));
+        this.dookiBot.getResponse("mark 2,44");
+        this.dookiBot.getResponse("delete 1");
+        assertEquals("Here are the done tasks in your list:\n1.[T][X] task 2\n43.[T][X] task 44",
+                this.dookiBot.getResponse("list done"));
+        assertTrue(this.dookiBot.getResponse("list undone").endsWith("\n42.[T][ ] task 43\n44.[T][ ] task 45"));
+        assertEquals("You have 44 tasks in the list: 2 done and 42 still to do.",
+                this.dookiBot.getResponse("summary"));
+    }
+
+    @Test
+    void writeResponseMatchesGetResponse() throws IOException {
+        for (String command : new String[] {"list", "list 2", "list 9", "list ids", "mark 3", "find task 4"}) {
+            StringWriter streamed = new StringWriter();
+            this.dookiBot.writeResponse(command, streamed);
+            assertEquals(this.dookiBot.getResponse(command), streamed.toString());
+        }
+    }
+
+    @Test
+    void statsRecordEachPhaseOnlyWhileOn() {
+        Stats.reset();
+        this.dookiBot.getResponse("list");
+        assertEquals(0, Stats.getCommandCount());
+
+        try {
+            this.dookiBot.getResponse("stats on");
+            this.dookiBot.getResponse("todo one more");
+            this.dookiBot.getResponse("mark 46");
+            this.dookiBot.getResponse("no such command");
+            String report = this.dookiBot.getResponse("stats");
+            assertTrue(report.startsWith("Recording is on."));
+            assertTrue(report.contains("\ntodo (1 runs)\n  total "));
+            assertTrue(report.contains("\n(unknown) (1 runs)"));
+            assertEquals(2, Stats.getPersistCalls());
+            assertTrue(Stats.getBytesWritten() > 0);
+            assertTrue(Stats.getLatency("mark", Stats.Phase.TOTAL, 99)
+                    >= Stats.getLatency("mark", Stats.Phase.PERSIST, 99));
+        } finally {
+            this.dookiBot.getResponse("stats off");
+        }
+        assertFalse(Stats.isEnabled());
+        this.dookiBot.getResponse("stats reset");
+        assertEquals(0, Stats.getCommandCount());
+    }
+}
@@ -1,17 +1,23 @@
 package parser;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import exceptions.CommandIsMissingArgumentException;
+import exceptions.InvalidTaskIndexException;
 import exceptions.TaskDescriptionIsEmptyException;
 import exceptions.TaskIsMissingArgumentException;
 import tasks.TaskManager;
@@ -20,7 +26,8 @@ import tasks.TodoTask;
 /**
  * Tests for CommandParser. Covered are:
  * - argument validation
- * - index handling.
+ * - index handling
+ * - typed add-task commands.
  */
 public class CommandParserTest {
     private static final Path DATA_PATH = Path.of("data", "dooki.txt");
@@ -46,60 +53,129 @@ public class CommandParserTest {
 
     @Test
     void parseMarkValidInputReturnsZeroBasedIndex() {
-        int idx = parser.parseMarkOrUnmark("mark 1");
-        assertEquals(0, idx);
+        assertArrayEquals(new int[] {0}, parser.parseMarkOrUnmarkSelection(Command.scan("mark 1")));
     }
 
     @Test
     void parseMarkMissingIndexThrowsIllegalArgument() {
-        assertThrows(IllegalArgumentException.class, () -> parser.parseMarkOrUnmark("mark"));
+        assertThrows(IllegalArgumentException.class, () -> parser.parseMarkOrUnmarkSelection(Command.scan("mark")));
     }
 
     @Test
     void parseMarkOutOfBoundsThrowsIndexOutOfBounds() {
-        assertThrows(IndexOutOfBoundsException.class, () -> parser.parseMarkOrUnmark("mark 5"));
+        assertThrows(IndexOutOfBoundsException.class, () ->
+                parser.parseMarkOrUnmarkSelection(Command.scan("mark 5")));
     }
 
     @Test
     void parseDeleteValidInputReturnsZeroBasedIndex() {
-        int idx = parser.parseDeleteTask("delete 1");
-        assertEquals(0, idx);
+        assertArrayEquals(new int[] {0}, parser.parseDeleteSelection(Command.scan("delete 1")));
+    }
+
+    @Test
+    void parseSelectionAcceptsListsAndRanges() {
+        for (int i = 0; i < 9; i++) {
+            this.taskManager.add(new TodoTask("sample " + i));
+        }
+        assertArrayEquals(new int[] {0, 3, 8}, parser.parseMarkOrUnmarkSelection(Command.scan("mark 9, 1,4,4")));
+        assertArrayEquals(new int[] {2, 3, 4, 6}, parser.parseDeleteSelection(Command.scan("delete 3-5,7")));
+        assertTrue(parser.isDoneSelection(Command.scan("delete done")));
+    }
+
+    @Test
+    void parseSelectionNamesInvalidNumbers() {
+        InvalidTaskIndexException thrown = assertThrows(InvalidTaskIndexException.class, () ->
+                parser.parseDeleteSelection(Command.scan("delete 0,1,3-5,9")));
+        assertEquals("0, 3-5, 9", thrown.invalidNumbers);
+        assertThrows(IndexOutOfBoundsException.class, () -> parser.parseMarkOrUnmarkSelection(Command.scan("mark 2")));
+        assertThrows(IllegalArgumentException.class, () -> parser.parseDeleteSelection(Command.scan("delete 5-3")));
+        assertThrows(IllegalArgumentException.class, () -> parser.parseDeleteSelection(Command.scan("delete 1,x")));
+    }
+
+    @Test
+    void parseIdSelectionKeepsDistinctIdsAndRejectsMixing() {
+        assertTrue(parser.isIdSelection(Command.scan("mark #12")));
+        assertFalse(parser.isIdSelection(Command.scan("mark 12")));
+        assertArrayEquals(new long[] {7, 3}, parser.parseIdSelection(Command.scan("delete #7, #3,#7")));
+        assertThrows(IllegalArgumentException.class, () -> parser.parseIdSelection(Command.scan("mark #3,4")));
+        assertThrows(IllegalArgumentException.class, () -> parser.parseDeleteSelection(Command.scan("delete 1,#3")));
+        assertThrows(IllegalArgumentException.class, () -> parser.parseIdSelection(Command.scan("unmark #x")));
     }
 
     @Test
     void parseTodoEmptyDescriptionThrowsIsEmpty() {
-        assertThrows(TaskDescriptionIsEmptyException.class, () -> parser.parseTodoTask("todo   "));
+        assertThrows(TaskDescriptionIsEmptyException.class, () -> parser.parseTodoTask(Command.scan("todo   ")));
     }
 
     @Test
     void parseDeadlineMissingByThrowsIsMissing() {
-        assertThrows(TaskIsMissingArgumentException.class, () -> parser.parseDeadlineTask("deadline do homework"));
+        assertThrows(TaskIsMissingArgumentException.class, () -> parser.parseDeadlineTask(Command.scan("deadline do homework")));
     }
 
     @Test
     void parseDeadlineEmptyDescriptionThrowsIsEmpty() {
-        assertThrows(TaskDescriptionIsEmptyException.class, () -> parser.parseDeadlineTask("deadline   /by 2019-12-02"));
+        assertThrows(TaskDescriptionIsEmptyException.class, () -> parser.parseDeadlineTask(Command.scan("deadline   /by 2019-12-02")));
     }
 
     @Test
     void parseEventMissingFromOrToThrowsIsMissing() {
-        assertThrows(TaskIsMissingArgumentException.class, () -> parser.parseEventTask("event party /from tonight"));
-        assertThrows(TaskIsMissingArgumentException.class, () -> parser.parseEventTask("event party /to tomorrow"));
+        assertThrows(TaskIsMissingArgumentException.class, () -> parser.parseEventTask(Command.scan("event party /from tonight")));
+        assertThrows(TaskIsMissingArgumentException.class, () -> parser.parseEventTask(Command.scan("event party /to tomorrow")));
     }
 
     @Test
     void parseEventEmptyDescriptionThrowsIsEmpty() {
-        assertThrows(TaskDescriptionIsEmptyException.class, () -> parser.parseEventTask("event   /from 2019-12-03 /to 2019-12-04"));
+        assertThrows(TaskDescriptionIsEmptyException.class, () -> parser.parseEventTask(Command.scan("event   /from 2019-12-03 /to 2019-12-04")));
     }
 
     @Test
     void parseFindValidInputReturnsKeyword() {
-        String keyword = parser.parseFindTask("find project");
+        String keyword = parser.parseFindTask(Command.scan("find project"));
         assertEquals("project", keyword);
     }
 
     @Test
     void parseFindMissingKeywordThrowsArgumentMissing() {
-        assertThrows(CommandIsMissingArgumentException.class, () -> parser.parseFindTask("find   "));
+        assertThrows(CommandIsMissingArgumentException.class, () -> parser.parseFindTask(Command.scan("find   ")));
+    }
+
+    @Test
+    void parseBetweenValidInputReturnsRange() {
+        LocalDate[] range = parser.parseBetweenTask(Command.scan("between 2019-12-01 2019-12-31"));
+        assertEquals(LocalDate.parse("2019-12-01"), range[0]);
+        assertEquals(LocalDate.parse("2019-12-31"), range[1]);
+    }
+
+    @Test
+    void parseBetweenBackwardsRangeThrowsIllegalArgument() {
+        assertThrows(IllegalArgumentException.class, () -> parser.parseBetweenTask(Command.scan("between 2019-12-31 2019-12-01")));
+        assertThrows(IllegalArgumentException.class, () -> parser.parseDueTask(Command.scan("due")));
+    }
+
+    @Test
+    void scanSplitsWordFromArgumentOnce() {
+        Command command = Command.scan("  deadline \t return  book /by 2019-12-02  ");
+        assertEquals("deadline", command.getWord());
+        assertEquals("return  book /by 2019-12-02", command.getArgument());
+        assertEquals("", Command.scan("   ").getWord());
+        assertFalse(Command.scan("list").hasArgument());
+    }
+
+    @Test
+    void parseAddTaskCommandsReturnTypedArguments() throws Exception {
+        assertEquals("read book", parser.parseTodoTask(Command.scan("todo  read book ")).getDescription());
+
+        DeadlineCommand deadline = parser.parseDeadlineTask(Command.scan("deadline return book /by 2019-12-02"));
+        assertEquals("return book", deadline.getDescription());
+        assertEquals(LocalDate.parse("2019-12-02"), deadline.getBy());
+        assertEquals("[D][ ] return book (by: Dec 02 2019)", deadline.toTask().toString());
+
+        EventCommand event = parser.parseEventTask(Command.scan("event fair /from 2019-12-03 /to 2019-12-04"));
+        assertEquals(LocalDate.parse("2019-12-03"), event.getFrom());
+        assertEquals(LocalDate.parse("2019-12-04"), event.getTo());
+        assertThrows(TaskIsMissingArgumentException.class, () ->
+                parser.parseDeadlineTask(Command.scan("deadline a /by 2019-12-02 /by 2019-12-03")));
+        assertThrows(DateTimeParseException.class, () ->
+                parser.parseEventTask(Command.scan("event fair /from /to 2019-12-04")));
     }
 }
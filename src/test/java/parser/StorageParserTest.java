@@ -53,4 +53,28 @@ public class StorageParserTest {
             parser.parseStorageLine("E | 0 | bad dates | not-a-date | 2019-12-04")
         );
     }
+
+    @Test
+    void parseTaskToleratesSeparatorWhitespace() throws ParseStorageLineFailureException {
+        Task task = parser.parseStorageLine("D|1|\treturn book  |2019-12-02");
+        DeadlineTask deadline = (DeadlineTask) task;
+        assertEquals("return book", deadline.getDescription());
+        assertEquals(LocalDate.parse("2019-12-02"), deadline.getDeadline());
+    }
+
+    @Test
+    void parseTaskWithTrailingEmptyFieldsThrowsFailure() {
+        ParseStorageLineFailureException thrown = assertThrows(ParseStorageLineFailureException.class, () ->
+            parser.parseStorageLine("T | 0 |  | ")
+        );
+        assertEquals(new ParseStorageLineFailureException("Task 'T | 0 |  | ' has fewer than 3 parts").getMessage(),
+            thrown.getMessage());
+    }
+
+    @Test
+    void parseDeadlineTaskImpossibleDateThrowsFailure() {
+        assertThrows(ParseStorageLineFailureException.class, () ->
+            parser.parseStorageLine("D | 0 | return book | 2019-02-30")
+        );
+    }
 }
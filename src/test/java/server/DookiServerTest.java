@@ -0,0 +1,104 @@
+package server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import dooki.DookiBot;
+
+/**
+ * Tests for the line-protocol server. Covered are:
+ * - pipelined commands are answered in order
+ * - connections share one task list
+ * - bye only disconnects the client that sent it
+ * - long listings arrive intact when streamed in parts.
+ */
+public class DookiServerTest {
+    private static final Path DATA_PATH = Path.of("data", "dooki.txt");
+    private static final Path JOURNAL_PATH = Path.of("data", "dooki.journal");
+
+    private DookiBot dookiBot;
+    private DookiServer server;
+    private Thread serverThread;
+
+    // Adapted from https://www.baeldung.com/junit-5
+    @BeforeEach
+    void startTest() throws IOException {
+        Files.deleteIfExists(DATA_PATH);
+        Files.deleteIfExists(JOURNAL_PATH);
+        this.dookiBot = new DookiBot();
+        this.server = new DookiServer(this.dookiBot, new InetSocketAddress("localhost", 0));
+        this.serverThread = new Thread(() -> {
+            try {
+                this.server.serve();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        this.serverThread.start();
+    }
+
+    // Adapted from https://www.baeldung.com/junit-5
+    @AfterEach
+    void endTest() throws IOException, InterruptedException {
+        this.server.close();
+        this.serverThread.join();
+        this.dookiBot.shutdown();
+        Files.deleteIfExists(DATA_PATH);
+        Files.deleteIfExists(JOURNAL_PATH);
+    }
+
+    @Test
+    void pipelinedCommandsAreAnsweredInOrder() throws IOException {
+        try (DookiClient client = new DookiClient("localhost", this.server.getPort())) {
+            client.send("todo first");
+            client.send("todo second");
+            client.send("list");
+            client.flush();
+            assertTrue(client.readResponse().contains("first"));
+            assertTrue(client.readResponse().contains("second"));
+            String listing = client.readResponse();
+            assertTrue(listing.indexOf("first") < listing.indexOf("second"));
+        }
+    }
+
+    @Test
+    void connectionsShareTheTaskList() throws IOException {
+        try (DookiClient writer = new DookiClient("localhost", this.server.getPort());
+                DookiClient reader = new DookiClient("localhost", this.server.getPort())) {
+            writer.request("todo shared task");
+            assertTrue(reader.request("find shared").contains("shared task"));
+        }
+    }
+
+    @Test
+    void byeOnlyDisconnectsSender() throws IOException {
+        try (DookiClient leaving = new DookiClient("localhost", this.server.getPort());
+                DookiClient staying = new DookiClient("localhost", this.server.getPort())) {
+            assertEquals(this.dookiBot.getResponse("bye"), leaving.request("bye"));
+            assertTrue(staying.request("todo still here").contains("still here"));
+        }
+    }
+
+    @Test
+    void longListingsAreStreamedIntact() throws IOException {
+        for (int i = 0; i < 3000; i++) {
+            this.dookiBot.getResponse("todo streamed task " + i);
+        }
+        try (DookiClient client = new DookiClient("localhost", this.server.getPort())) {
+            client.send("list");
+            client.send("list 2 100");
+            client.flush();
+            assertEquals(this.dookiBot.getResponse("list"), client.readResponse());
+            assertEquals(this.dookiBot.getResponse("list 2 100"), client.readResponse());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package server;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import dooki.DookiBot;
+
+/**
+ * Compares a platform thread per session against a virtual thread per session at 1k and 10k sessions.
+ * For each setup it reports the time to open every session, the heap held while they sit idle,
+ * and the throughput once every session sends a burst of commands.
+ * Virtual threads are only measured when the JVM running the benchmark supports them
+ * (run {@code ./gradlew sessionBenchmark -PbenchmarkJavaVersion=21}).
+ * The bot runs on a scratch save file, so the user's own tasks are never read or written.
+ */
+public class SessionExecutorBenchmark {
+    private static final int[] SESSION_COUNTS = {1_000, 10_000};
+    private static final int COMMANDS_PER_SESSION = 20;
+    private static final String COMMAND = "find -w benchmarkneedle";
+
+    /**
+     * Runs the benchmark and prints one line per setup.
+     * @param args unused.
+     */
+    public static void main(String[] args) throws InterruptedException, IOException {
+        Path directory = Files.createTempDirectory("dooki-bench");
+        DookiBot dookiBot = new DookiBot(directory.resolve("dooki.txt"), true);
+        try {
+            for (int sessions : SESSION_COUNTS) {
+                run(dookiBot, sessions, false);
+                if (SessionExecutor.isVirtualThreadSupported()) {
+                    run(dookiBot, sessions, true);
+                } else {
+                    System.out.printf("virtual  %6d sessions: skipped, this JVM has no virtual threads%n", sessions);
+                }
+            }
+        } finally {
+            dookiBot.shutdown();
+            deleteDirectory(directory);
+        }
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    private static void run(DookiBot dookiBot, int sessionCount, boolean isVirtual) throws InterruptedException {
+        long heapBefore = usedHeap();
+        CountDownLatch answered = new CountDownLatch(sessionCount * COMMANDS_PER_SESSION);
+        try (SessionExecutor executor = new SessionExecutor(dookiBot, isVirtual)) {
+            long openStart = System.nanoTime();
+            SessionExecutor.Session[] sessions = new SessionExecutor.Session[sessionCount];
+            for (int i = 0; i < sessionCount; i++) {
+                sessions[i] = executor.open((response, isExit) -> answered.countDown());
+            }
+            double openMillis = (System.nanoTime() - openStart) / 1e6;
+            long idleHeap = usedHeap() - heapBefore;
+
+            long burstStart = System.nanoTime();
+            for (int round = 0; round < COMMANDS_PER_SESSION; round++) {
+                for (SessionExecutor.Session session : sessions) {
+                    session.submit(COMMAND);
+                }
+            }
+            if (!answered.await(5, TimeUnit.MINUTES)) {
+                System.out.println("Timed out waiting for responses");
+                return;
+            }
+            double burstSeconds = (System.nanoTime() - burstStart) / 1e9;
+            System.out.printf("%-8s %6d sessions: open %8.1f ms, idle heap %7d KB, %9.0f commands/s%n",
+                    isVirtual ? "virtual" : "platform", sessionCount, openMillis, idleHeap / 1024,
+                    sessionCount * COMMANDS_PER_SESSION / burstSeconds);
+        }
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,113 @@
+package server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import dooki.DookiBot;
+import dooki.DookiSession;
+
+/**
+ * Tests for running sessions over a shared bot. Covered are:
+ * - a session's commands are answered in order
+ * - exiting one session leaves the others and the default session running
+ * - closing the executor waits for the commands already queued to be answered.
+ */
+public class SessionExecutorTest {
+    private static final Path DATA_PATH = Path.of("data", "dooki.txt");
+    private static final Path JOURNAL_PATH = Path.of("data", "dooki.journal");
+
+    private DookiBot dookiBot;
+
+    // Adapted from https://www.baeldung.com/junit-5
+    @BeforeEach
+    void startTest() throws IOException {
+        Files.deleteIfExists(DATA_PATH);
+        Files.deleteIfExists(JOURNAL_PATH);
+        this.dookiBot = new DookiBot();
+    }
+
+    // Adapted from https://www.baeldung.com/junit-5
+    @AfterEach
+    void endTest() throws IOException {
+        this.dookiBot.shutdown();
+        Files.deleteIfExists(DATA_PATH);
+        Files.deleteIfExists(JOURNAL_PATH);
+    }
+
+    @Test
+    void commandsAreAnsweredInOrder() throws InterruptedException {
+        List<String> responses = new CopyOnWriteArrayList<>();
+        CountDownLatch answered = new CountDownLatch(3);
+        try (SessionExecutor executor = new SessionExecutor(this.dookiBot)) {
+            SessionExecutor.Session session = executor.open((response, isExit) -> {
+                responses.add(response);
+                answered.countDown();
+            });
+            session.submit("todo first");
+            session.submit("todo second");
+            session.submit("list");
+            assertTrue(answered.await(5, TimeUnit.SECONDS));
+        }
+        assertTrue(responses.get(0).contains("first"));
+        assertTrue(responses.get(1).contains("second"));
+        assertTrue(responses.get(2).indexOf("first") < responses.get(2).indexOf("second"));
+    }
+
+    @Test
+    void exitOnlyEndsItsOwnSession() throws InterruptedException {
+        CountDownLatch exited = new CountDownLatch(1);
+        CountDownLatch answered = new CountDownLatch(1);
+        try (SessionExecutor executor = new SessionExecutor(this.dookiBot)) {
+            SessionExecutor.Session leaving = executor.open((response, isExit) -> {
+                if (isExit) {
+                    exited.countDown();
+                }
+            });
+            SessionExecutor.Session staying = executor.open((response, isExit) -> {
+                assertFalse(isExit);
+                answered.countDown();
+            });
+            leaving.submit("bye");
+            assertTrue(exited.await(5, TimeUnit.SECONDS));
+            staying.submit("todo still here");
+            assertTrue(answered.await(5, TimeUnit.SECONDS));
+        }
+        assertFalse(this.dookiBot.shouldExit());
+    }
+
+    @Test
+    void closeWaitsForQueuedCommands() {
+        List<String> responses = new CopyOnWriteArrayList<>();
+        SessionExecutor executor = new SessionExecutor(this.dookiBot);
+        SessionExecutor.Session session = executor.open((response, isExit) -> responses.add(response));
+        for (int i = 0; i < 100; i++) {
+            session.submit("todo task " + i);
+        }
+        executor.close();
+        assertEquals(100, responses.size());
+        assertEquals(0, executor.getSessionCount());
+    }
+
+    @Test
+    void sessionsKeepSeparateExitState() {
+        DookiSession session = this.dookiBot.newSession();
+        this.dookiBot.getResponse(session, "bye");
+        assertTrue(session.shouldExit());
+        assertFalse(this.dookiBot.shouldExit());
+        assertEquals(this.dookiBot.getResponse("bye"), this.dookiBot.getResponse(session, "bye"));
+        assertTrue(this.dookiBot.shouldExit());
+    }
+}
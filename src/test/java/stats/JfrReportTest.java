@@ -0,0 +1,67 @@
+package stats;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import dooki.DookiBot;
+import jdk.jfr.Recording;
+
+/**
+ * Tests for JfrReport. Covered are:
+ * - command, storage and index events reach the report.
+ */
+public class JfrReportTest {
+    private static final Path DATA_PATH = Path.of("data", "dooki.txt");
+    private static final Path JOURNAL_PATH = Path.of("data", "dooki.journal");
+    private static final Path RECORDING_PATH = Path.of("data", "test.jfr");
+
+    // Adapted from https://www.baeldung.com/junit-5
+    @BeforeEach
+    void startTest() throws IOException {
+        Files.deleteIfExists(DATA_PATH);
+        Files.deleteIfExists(JOURNAL_PATH);
+        Files.createDirectories(DATA_PATH.getParent());
+    }
+
+    // Adapted from https://www.baeldung.com/junit-5
+    @AfterEach
+    void endTest() throws IOException {
+        Files.deleteIfExists(DATA_PATH);
+        Files.deleteIfExists(JOURNAL_PATH);
+        Files.deleteIfExists(RECORDING_PATH);
+    }
+
+    @Test
+    void summarizesDookiEventsPerCommand() throws IOException {
+        try (Recording recording = new Recording()) {
+            recording.enable("dooki.Command");
+            recording.enable("dooki.StorageLoad");
+            recording.enable("dooki.StorageSave");
+            recording.enable("dooki.IndexRebuild");
+            recording.start();
+            DookiBot dookiBot = new DookiBot(false);
+            dookiBot.getResponse("todo read book");
+            dookiBot.getResponse("todo return book");
+            dookiBot.getResponse("mark 9");
+            dookiBot.getResponse("list");
+            dookiBot.shutdown();
+            recording.stop();
+            recording.dump(RECORDING_PATH);
+        }
+
+        String report = JfrReport.summarize(RECORDING_PATH);
+        assertTrue(report.matches("(?s).*\\ntodo +2 +0 .*"), report);
+        assertTrue(report.matches("(?s).*\\nmark +1 +1 .*"), report);
+        assertTrue(report.matches("(?s).*\\nlist +1 +0 .*"), report);
+        assertTrue(report.contains("\nload "), report);
+        assertTrue(report.contains("\nsave journal "), report);
+        assertTrue(report.contains("\nrebuild token "), report);
+    }
+}
@@ -0,0 +1,303 @@
+package storage;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import parser.StorageParser;
+import tasks.DeadlineTask;
+import tasks.EventTask;
+import tasks.Task;
+import tasks.TaskManager;
+import tasks.TodoTask;
+
+/**
+ * Tests for Storage. Covered are:
+ * - journal replay, including bulk changes, and folding a leftover journal in snapshot mode
+ * - journal compaction, and failed compactions keeping the old snapshot and journal
+ * - chunked loading and malformed line reporting
+ * - saving over a file that was just loaded
+ * - binary format conversion and detection, and dates outside the 32-bit epoch day range
+ * - an unreadable save file being left untouched.
+ */
+public class StorageTest {
+    private static final Path DATA_PATH = Path.of("data", "dooki.txt");
+    private static final Path JOURNAL_PATH = Path.of("data", "dooki.journal");
+
+    // Adapted from https://www.baeldung.com/junit-5
+    @BeforeEach
+    void startTest() throws IOException {
+        Files.deleteIfExists(DATA_PATH);
+        Files.deleteIfExists(JOURNAL_PATH);
+        Files.createDirectories(DATA_PATH.getParent());
+    }
+
+    // Adapted from https://www.baeldung.com/junit-5
+    @AfterEach
+    void endTest() throws IOException {
+        Files.deleteIfExists(DATA_PATH);
+        Files.deleteIfExists(JOURNAL_PATH);
+    }
+
+    @Test
+    void journaledMutationsReplayOnLoad() throws IOException {
+        TaskManager manager = new TaskManager(new Storage(new StorageParser(), true));
+        manager.add(new DeadlineTask("return book", LocalDate.parse("2020-01-02")));
+        manager.add(new TodoTask("read book"));
+        manager.add(new DeadlineTask("submit report", LocalDate.parse("2020-01-01")));
+        manager.markTaskAsDone(1);
+        manager.delete(0);
+        manager.sortByDate();
+
+        assertEquals(0, Files.size(DATA_PATH));
+        assertTrue(Files.exists(JOURNAL_PATH));
+
+        ArrayList<Task> loaded = new Storage(new StorageParser(), true).load();
+        assertEquals(2, loaded.size());
+        assertEquals("submit report", loaded.get(0).getDescription());
+        assertEquals("read book", loaded.get(1).getDescription());
+        assertTrue(loaded.get(1).isDone());
+    }
+
+    @Test
+    void bulkJournalEntriesReplayOnLoad() throws IOException {
+        TaskManager manager = new TaskManager(new Storage(new StorageParser(), true));
+        for (int i = 1; i <= 10; i++) {
+            manager.add(new TodoTask("task " + i));
+        }
+        manager.markTasksAsDone(new int[] {1, 3, 5});
+        manager.deleteAll(new int[] {0, 2, 4, 6});
+        manager.deleteDone();
+
+        assertEquals(List.of("M | #2,#4,#6", "X | #1,#3,#5,#7", "X | #2,#4,#6"),
+                Files.readAllLines(JOURNAL_PATH).subList(10, 13));
+        ArrayList<Task> loaded = new Storage(new StorageParser(), true).load();
+        assertEquals(3, loaded.size());
+        assertEquals("task 8", loaded.get(0).getDescription());
+        assertEquals("task 10", loaded.get(2).getDescription());
+    }
+
+    @Test
+    void journalIsCompactedPastThreshold() throws IOException {
+        Storage storage = new Storage(new StorageParser(), DATA_PATH, true, 64);
+        TaskManager manager = new TaskManager(storage);
+        for (int i = 0; i < 10; i++) {
+            manager.add(new TodoTask("task " + i));
+        }
+
+        assertTrue(Files.size(JOURNAL_PATH) <= 64);
+        List<String> snapshot = Files.readAllLines(DATA_PATH);
+        assertFalse(snapshot.isEmpty());
+
+        ArrayList<Task> loaded = new Storage(new StorageParser(), true).load();
+        assertEquals(10, loaded.size());
+        assertEquals("task 9", loaded.get(9).getDescription());
+    }
+
+    @Test
+    void failedSnapshotWriteKeepsOldSnapshotAndJournal() throws IOException {
+        Storage storage = new Storage(new StorageParser(), true);
+        TaskManager manager = new TaskManager(storage);
+        manager.add(new TodoTask("first"));
+        storage.save(List.of(manager.get(0)));
+        manager.add(new TodoTask("second"));
+        manager.markTaskAsDone(0);
+        List<String> snapshot = Files.readAllLines(DATA_PATH);
+
+        // A directory where the temporary snapshot goes makes the write fail partway through the save.
+        Path tempPath = Path.of("data", "dooki.txt.tmp");
+        Files.createDirectories(tempPath);
+        try {
+            storage.save(List.of());
+        } finally {
+            Files.delete(tempPath);
+        }
+
+        assertEquals(snapshot, Files.readAllLines(DATA_PATH));
+        ArrayList<Task> loaded = new Storage(new StorageParser(), true).load();
+        assertEquals(2, loaded.size());
+        assertEquals("[T][X] first", loaded.get(0).toString());
+    }
+
+    @Test
+    void snapshotModeFoldsJournalLeftByJournaledMode() throws IOException {
+        TaskManager manager = new TaskManager(new Storage(new StorageParser(), true));
+        manager.add(new TodoTask("first"));
+        manager.add(new TodoTask("second"));
+        manager.markTaskAsDone(1);
+        assertTrue(Files.exists(JOURNAL_PATH));
+
+        TaskManager snapshotManager = new TaskManager(new Storage(new StorageParser()));
+        assertEquals(2, snapshotManager.size());
+        assertFalse(Files.exists(JOURNAL_PATH));
+        snapshotManager.delete(0);
+        assertFalse(Files.exists(JOURNAL_PATH));
+        assertEquals(List.of("[T][X] second"), new Storage(new StorageParser()).load().stream()
+                .map(Task::toString).toList());
+    }
+
+    @Test
+    void journalWithoutSnapshotIsDiscarded() throws IOException {
+        Files.writeString(JOURNAL_PATH, "+ | T | 0 | stale\n");
+
+        ArrayList<Task> loaded = new Storage(new StorageParser(), true).load();
+        assertTrue(loaded.isEmpty());
+        assertFalse(Files.exists(JOURNAL_PATH));
+    }
+
+    @Test
+    void chunkedLoadKeepsOrderAndReportsEveryBadLine() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            lines.add(i % 50 == 7 ? "Q | 0 | broken " + i : "T | " + (i % 2) + " | task " + i);
+        }
+        Files.write(DATA_PATH, lines);
+
+        ParallelTaskLoader loader = new ParallelTaskLoader(new StorageParser(), ForkJoinPool.commonPool(), 64);
+        LoadResult result = loader.load(DATA_PATH);
+
+        assertEquals(200, result.getLineCount());
+        assertEquals(196, result.getTasks().size());
+        assertEquals("task 0", result.getTasks().get(0).getDescription());
+        assertEquals("task 199", result.getTasks().get(195).getDescription());
+        assertEquals(4, result.getErrors().size());
+        assertEquals(8, result.getErrors().get(0).getLineNumber());
+        assertEquals(158, result.getErrors().get(3).getLineNumber());
+    }
+
+    @Test
+    void saveRewritesTheFileItJustLoaded() throws IOException {
+        Files.write(DATA_PATH, List.of("T | 0 | first", "T | 1 | second"));
+
+        Storage storage = new Storage(new StorageParser());
+        ArrayList<Task> loaded = storage.load();
+        loaded.remove(0);
+        storage.save(loaded);
+        ArrayList<Task> reloaded = storage.load();
+        assertEquals(1, reloaded.size());
+        assertEquals("[T][X] second", reloaded.get(0).toString());
+
+        reloaded.add(new TodoTask("third"));
+        storage.save(reloaded);
+        assertEquals(2, new Storage(new StorageParser()).load().size());
+    }
+
+    @Test
+    void loadSkipsMalformedLinesInsteadOfTruncating() throws IOException {
+        Files.write(DATA_PATH, List.of("T | 0 | first", "not a task", "T | 1 | third"));
+
+        ArrayList<Task> loaded = new Storage(new StorageParser()).load();
+        assertEquals(2, loaded.size());
+        assertEquals("third", loaded.get(1).getDescription());
+    }
+
+    @Test
+    void convertToBinaryRoundTripsAndIsDetectedOnLoad() throws IOException {
+        TaskManager manager = new TaskManager(new Storage(new StorageParser()));
+        manager.add(new TodoTask("read b\u00f6k"));
+        manager.add(new DeadlineTask("return book", LocalDate.parse("2019-12-02")));
+        manager.add(new EventTask("project meeting", LocalDate.parse("2019-12-03"), LocalDate.parse("2019-12-04")));
+        manager.markTaskAsDone(1);
+
+        Storage storage = new Storage(new StorageParser());
+        assertEquals(3, storage.convert(StorageFormat.BINARY));
+        assertTrue(BinaryTaskCodec.isBinary(DATA_PATH));
+
+        Storage reloaded = new Storage(new StorageParser());
+        ArrayList<Task> loaded = reloaded.load();
+        assertEquals(StorageFormat.BINARY, reloaded.getFormat());
+        assertEquals(3, loaded.size());
+        assertEquals("[T][ ] read b\u00f6k", loaded.get(0).toString());
+        assertEquals("[D][X] return book (by: Dec 02 2019)", loaded.get(1).toString());
+        assertEquals("[E][ ] project meeting (from: Dec 03 2019 to: Dec 04 2019)", loaded.get(2).toString());
+
+        reloaded.save(loaded);
+        assertEquals(3, reloaded.load().size());
+
+        reloaded.convert(StorageFormat.TEXT);
+        assertEquals("2 | D | 1 | return book | 2019-12-02", Files.readAllLines(DATA_PATH).get(2));
+        assertEquals(2, new Storage(new StorageParser()).load().get(1).getId());
+    }
+
+    @Test
+    void binaryFormatKeepsDatesBeyondFourDigitYears() throws IOException {
+        LocalDate farFuture = LocalDate.parse("+999999999-12-31");
+        LocalDate farPast = LocalDate.parse("-999999999-01-01");
+        List<Task> tasks = List.of(new DeadlineTask("far", farFuture), new EventTask("long", farPast, farFuture));
+        new BinaryTaskCodec().write(DATA_PATH, tasks, 1);
+
+        LoadResult result = new BinaryTaskCodec().read(DATA_PATH);
+        assertTrue(result.getErrors().isEmpty());
+        assertEquals(farFuture, ((DeadlineTask) result.getTasks().get(0)).getDeadline());
+        assertEquals(farPast, ((EventTask) result.getTasks().get(1)).getFrom());
+    }
+
+    @Test
+    void unreadableSaveFileIsNeverOverwritten() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(18).putInt(BinaryTaskCodec.MAGIC).putShort((short) 2)
+                .putInt(0).putLong(1);
+        Files.write(DATA_PATH, header.array());
+
+        Storage storage = new Storage(new StorageParser(), true);
+        assertTrue(storage.load().isEmpty());
+        assertTrue(storage.isReadOnly());
+        storage.append(List.of(JournalEntry.add(new TodoTask("lost"))));
+        storage.save(List.of(new TodoTask("lost")));
+        assertEquals(0, storage.convert(StorageFormat.TEXT));
+
+        assertArrayEquals(header.array(), Files.readAllBytes(DATA_PATH));
+        assertFalse(Files.exists(JOURNAL_PATH));
+    }
+
+    @Test
+    void idsArePersistedAndNeverReused() throws IOException {
+        TaskManager manager = new TaskManager(new Storage(new StorageParser()));
+        manager.add(new TodoTask("first"));
+        manager.add(new TodoTask("second"));
+        manager.add(new TodoTask("third"));
+        manager.delete(2);
+
+        assertEquals("# next-id 4", Files.readAllLines(DATA_PATH).get(0));
+        TaskManager reloaded = new TaskManager(new Storage(new StorageParser()));
+        assertEquals(2, reloaded.get(1).getId());
+        reloaded.add(new TodoTask("fourth"));
+        assertEquals(4, reloaded.get(2).getId());
+    }
+
+    @Test
+    void legacyFilesGetIdsAndLegacyJournalsStillReplay() throws IOException {
+        Files.write(DATA_PATH, List.of("T | 0 | first", "T | 0 | second", "T | 0 | third"));
+        Files.write(JOURNAL_PATH, List.of("M | 2", "X | 0"));
+
+        ArrayList<Task> loaded = new Storage(new StorageParser(), true).load();
+        assertEquals(2, loaded.size());
+        assertEquals(2, loaded.get(0).getId());
+        assertTrue(loaded.get(1).isDone());
+        assertEquals(3, loaded.get(1).getId());
+    }
+
+    @Test
+    void duplicateIdsAreReassignedOnLoad() throws IOException {
+        Files.write(DATA_PATH, List.of("# next-id 3", "1 | T | 0 | first", "1 | T | 0 | copy"));
+
+        Storage storage = new Storage(new StorageParser());
+        ArrayList<Task> loaded = storage.load();
+        assertEquals(1, loaded.get(0).getId());
+        assertEquals(3, loaded.get(1).getId());
+        assertEquals(4, storage.allocateId());
+    }
+}
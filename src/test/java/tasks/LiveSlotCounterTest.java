@@ -0,0 +1,52 @@
+package tasks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for LiveSlotCounter. Covered are:
+ * - finding slots by position after slots are emptied
+ * - growing past its capacity and resetting.
+ */
+public class LiveSlotCounterTest {
+    @Test
+    void slotOfSkipsEmptiedSlots() {
+        LiveSlotCounter counter = new LiveSlotCounter();
+        counter.reset(5);
+        counter.empty(0);
+        counter.empty(3);
+        assertEquals(3, counter.liveCount());
+        assertEquals(1, counter.slotOf(0));
+        assertEquals(2, counter.slotOf(1));
+        assertEquals(4, counter.slotOf(2));
+    }
+
+    @Test
+    void matchesScanWhileGrowingAndEmptying() {
+        LiveSlotCounter counter = new LiveSlotCounter();
+        List<Integer> live = new ArrayList<>();
+        Random random = new Random(42);
+        int slots = 0;
+        for (int round = 0; round < 5000; round++) {
+            if (live.isEmpty() || random.nextInt(3) > 0) {
+                counter.append();
+                live.add(slots++);
+            } else {
+                counter.empty(live.remove(random.nextInt(live.size())));
+            }
+        }
+        assertEquals(live.size(), counter.liveCount());
+        for (int position = 0; position < live.size(); position++) {
+            assertEquals((int) live.get(position), counter.slotOf(position));
+        }
+
+        counter.reset(live.size());
+        assertEquals(live.size(), counter.liveCount());
+        assertEquals(live.size() - 1, counter.slotOf(live.size() - 1));
+    }
+}
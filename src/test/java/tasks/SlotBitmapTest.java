@@ -0,0 +1,54 @@
+package tasks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for SlotBitmap. Covered are:
+ * - set, clear and cardinality
+ * - iteration across word and chunk boundaries.
+ */
+public class SlotBitmapTest {
+    @Test
+    void setAndClearKeepCardinality() {
+        SlotBitmap bitmap = new SlotBitmap();
+        bitmap.set(3);
+        bitmap.set(3);
+        bitmap.set(100_000);
+        assertEquals(2, bitmap.cardinality());
+        assertTrue(bitmap.get(100_000));
+        assertFalse(bitmap.get(99_999));
+        assertFalse(bitmap.get(5_000_000));
+
+        bitmap.clear(100_000);
+        bitmap.clear(7);
+        assertEquals(1, bitmap.cardinality());
+        assertFalse(bitmap.get(100_000));
+
+        bitmap.clear();
+        assertEquals(0, bitmap.cardinality());
+        assertEquals(-1, bitmap.nextSetBit(0));
+    }
+
+    @Test
+    void nextSetBitCrossesWordsAndChunks() {
+        SlotBitmap bitmap = new SlotBitmap();
+        int[] slots = {0, 63, 64, 4095, 4096, 20_000, 20_001};
+        for (int slot : slots) {
+            bitmap.set(slot);
+        }
+        int found = 0;
+        for (int slot = bitmap.nextSetBit(0); slot >= 0; slot = bitmap.nextSetBit(slot + 1)) {
+            assertEquals(slots[found++], slot);
+        }
+        assertEquals(slots.length, found);
+        assertEquals(20_000, bitmap.nextSetBit(4097));
+        assertEquals(-1, bitmap.nextSetBit(20_002));
+
+        bitmap.clear(4096);
+        assertEquals(20_000, bitmap.nextSetBit(4096));
+    }
+}
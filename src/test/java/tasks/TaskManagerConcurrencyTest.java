@@ -0,0 +1,176 @@
+package tasks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import exceptions.NoTasksFoundException;
+import parser.StorageParser;
+import storage.Storage;
+
+/**
+ * Stress tests for sharing a TaskManager between threads. Covered are:
+ * - no lost updates under concurrent mutation
+ * - no torn reads while listing and searching
+ * - a task's cached display string matches its done state once marking stops.
+ */
+public class TaskManagerConcurrencyTest {
+    private static final Path DATA_PATH = Path.of("data", "dooki.txt");
+    private static final int WRITERS = 4;
+    private static final int TASKS_PER_WRITER = 500;
+    private static final int READERS = 4;
+    private static final int DELETES = 300;
+
+    // Adapted from https://www.baeldung.com/junit-5
+    @BeforeEach
+    void startTest() throws IOException {
+        Files.deleteIfExists(DATA_PATH);
+        Files.createDirectories(DATA_PATH.getParent());
+    }
+
+    // Adapted from https://www.baeldung.com/junit-5
+    @AfterEach
+    void endTest() throws IOException {
+        Files.deleteIfExists(DATA_PATH);
+    }
+
+    @Test
+    void concurrentMutationsAndReadsStayConsistent() throws Exception {
+        TaskManager manager = new TaskManager(new Storage(new StorageParser()), 5, 256);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean isWriting = new AtomicBoolean(true);
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        List<Thread> writers = new ArrayList<>();
+        List<Thread> readers = new ArrayList<>();
+
+        for (int w = 0; w < WRITERS; w++) {
+            int writer = w;
+            writers.add(new Thread(() -> runChecked(failures, () -> {
+                start.await();
+                for (int i = 0; i < TASKS_PER_WRITER; i++) {
+                    manager.add(new TodoTask("writer" + writer + " task" + i));
+                    try {
+                        if (i % 2 == 0) {
+                            manager.markTaskAsDone(0);
+                        } else {
+                            manager.markTaskAsUndone(0);
+                        }
+                    } catch (IndexOutOfBoundsException e) {
+                        // The deleter may briefly empty the list.
+                    }
+                }
+            })));
+        }
+        // Only this thread deletes, so checking the size before deleting is race-free.
+        writers.add(new Thread(() -> runChecked(failures, () -> {
+            start.await();
+            int deleted = 0;
+            while (deleted < DELETES) {
+                if (manager.size() > 0) {
+                    manager.delete(0);
+                    deleted++;
+                }
+            }
+        })));
+        for (int r = 0; r < READERS; r++) {
+            readers.add(new Thread(() -> runChecked(failures, () -> {
+                start.await();
+                while (isWriting.get()) {
+                    assertListingIsWellFormed(manager.toString());
+                    try {
+                        for (Task task : manager.find("writer")) {
+                            assertTrue(task.getDescription().startsWith("writer"));
+                        }
+                    } catch (NoTasksFoundException e) {
+                        // The deleter may briefly empty the list.
+                    }
+                }
+            })));
+        }
+
+        writers.forEach(Thread::start);
+        readers.forEach(Thread::start);
+        start.countDown();
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        isWriting.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        manager.close();
+
+        assertTrue(failures.isEmpty(), "Worker failed: " + failures.peek());
+        int expected = WRITERS * TASKS_PER_WRITER - DELETES;
+        assertEquals(expected, manager.size());
+        assertEquals(expected, manager.find("task").size());
+        assertEquals(expected, manager.findPrefix("writer").size());
+        assertEquals(expected, new Storage(new StorageParser()).load().size());
+    }
+
+    @Test
+    void renderingFollowsDoneStateWhileMarking() throws Exception {
+        Task task = new TodoTask("flip");
+        AtomicBoolean isMarking = new AtomicBoolean(true);
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < READERS; r++) {
+            readers.add(new Thread(() -> runChecked(failures, () -> {
+                while (isMarking.get()) {
+                    String shown = task.toString();
+                    assertTrue(shown.equals("[T][X] flip") || shown.equals("[T][ ] flip"), shown);
+                }
+            })));
+        }
+        readers.forEach(Thread::start);
+        for (int i = 0; i < 20000; i++) {
+            if (i % 2 == 0) {
+                task.markDone();
+            } else {
+                task.markUndone();
+            }
+        }
+        task.markDone();
+        isMarking.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertTrue(failures.isEmpty(), "Reader failed: " + failures.peek());
+        assertEquals("[T][X] flip", task.toString());
+    }
+
+    private interface CheckedRunnable {
+        void run() throws Exception;
+    }
+
+    private static void runChecked(ConcurrentLinkedQueue<Throwable> failures, CheckedRunnable body) {
+        try {
+            body.run();
+        } catch (Throwable t) {
+            failures.add(t);
+        }
+    }
+
+    private static void assertListingIsWellFormed(String listing) {
+        if (listing.equals(" (no tasks yet)")) {
+            return;
+        }
+        String[] lines = listing.split("\n");
+        for (int i = 0; i < lines.length; i++) {
+            assertTrue(lines[i].startsWith((i + 1) + ".[T]"), "Torn listing line: " + lines[i]);
+        }
+    }
+}
@@ -15,6 +15,7 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import exceptions.InvalidTaskIndexException;
 import exceptions.NoTasksFoundException;
 import parser.StorageParser;
 import storage.Storage;
@@ -23,7 +24,15 @@ import storage.Storage;
  * Tests for TaskManager. Covered are:
  * - mark/unmark
  * - delete
- * - persistence calls.
+ * - persistence calls
+ * - background persistence
+ * - batched persistence
+ * - indexed word, prefix and substring search
+ * - date range queries
+ * - keep sorted mode
+ * - id-based addressing and deletes that leave empty slots
+ * - cached display strings
+ * - done status counts and filtered listings.
  */
 public class TaskManagerTest {
     private static final Path DATA_PATH = Path.of("data", "dooki.txt");
@@ -127,4 +136,205 @@ public class TaskManagerTest {
         assertEquals(deadlineLater, manager.get(2));
         assertEquals(todo, manager.get(3));
     }
+
+    @Test
+    void batchPersistsOnlyOnCommit() {
+        TaskManager manager = new TaskManager(new Storage(new StorageParser()), 1000, 1000);
+        manager.add(new TodoTask("before batch"));
+        manager.beginBatch();
+        for (int i = 0; i < 100; i++) {
+            manager.add(new TodoTask("task " + i));
+        }
+        manager.delete(0);
+        assertEquals(1, new Storage(new StorageParser()).load().size());
+
+        assertTrue(manager.commitBatch());
+        List<Task> loaded = new Storage(new StorageParser()).load();
+        assertEquals(100, loaded.size());
+        assertEquals("task 0", loaded.get(0).getDescription());
+        manager.close();
+    }
+
+    @Test
+    void backgroundPersistenceWritesEverythingOnFlush() {
+        TaskManager manager = new TaskManager(new Storage(new StorageParser()), 1000, 1000);
+        for (int i = 0; i < 100; i++) {
+            manager.add(new TodoTask("task " + i));
+        }
+        manager.markTaskAsDone(99);
+        manager.delete(0);
+        manager.flush();
+
+        List<Task> loaded = new Storage(new StorageParser()).load();
+        assertEquals(99, loaded.size());
+        assertEquals("task 1", loaded.get(0).getDescription());
+        assertTrue(loaded.get(98).isDone());
+        manager.close();
+    }
+
+    @Test
+    void findWordAndPrefixUseWholeWords() {
+        TaskManager manager = new TaskManager(new Storage(new StorageParser()));
+
+        TodoTask notebook = new TodoTask("buy notebook");
+        TodoTask book = new TodoTask("Book flights");
+        TodoTask bookshelf = new TodoTask("assemble bookshelf");
+        manager.add(notebook);
+        manager.add(book);
+        manager.add(bookshelf);
+
+        assertEquals(List.of(book), manager.findWord("book"));
+        assertEquals(List.of(book, bookshelf), manager.findPrefix("boo"));
+        assertEquals(List.of(notebook, book, bookshelf), manager.find("book"));
+
+        manager.delete(1);
+        assertThrows(NoTasksFoundException.class, () -> manager.findWord("book"));
+        assertEquals(List.of(bookshelf), manager.findPrefix("BOOK"));
+    }
+
+    @Test
+    void findUsesTrigramIndexWithSameResultsAsScan() {
+        TaskManager manager = new TaskManager(new Storage(new StorageParser()));
+        for (int i = 0; i < 50; i++) {
+            manager.add(new TodoTask(i % 3 == 0 ? "Notebook " + i : "pen " + i));
+        }
+        manager.delete(0);
+
+        assertFalse(manager.isTrigramIndexEnabled());
+        List<Task> scanned = manager.find("EBOOK 1");
+        manager.setTrigramIndexEnabled(true);
+        List<Task> indexed = manager.find("EBOOK 1");
+
+        assertEquals(scanned, indexed);
+        assertEquals(List.of("Notebook 12", "Notebook 15", "Notebook 18"),
+            indexed.stream().map(Task::getDescription).toList());
+        assertEquals(manager.find("bo"), manager.find("book"));
+    }
+
+    @Test
+    void findDueByAndBetweenUseTaskDates() {
+        TaskManager manager = new TaskManager(new Storage(new StorageParser()));
+
+        DeadlineTask later = new DeadlineTask("return book", LocalDate.parse("2020-01-05"));
+        TodoTask todo = new TodoTask("read something");
+        DeadlineTask soon = new DeadlineTask("submit report", LocalDate.parse("2020-01-01"));
+        EventTask event = new EventTask(
+            "project meeting",
+            LocalDate.parse("2020-01-03"),
+            LocalDate.parse("2020-01-09")
+        );
+        manager.add(later);
+        manager.add(todo);
+        manager.add(soon);
+        manager.add(event);
+
+        assertEquals(List.of(soon, event), manager.findDueBy(LocalDate.parse("2020-01-04")));
+        assertEquals(List.of(event, later), manager.findBetween(LocalDate.parse("2020-01-02"),
+            LocalDate.parse("2020-01-05")));
+
+        manager.delete(3);
+        assertEquals(List.of(later), manager.findBetween(LocalDate.parse("2020-01-02"),
+            LocalDate.parse("2020-01-05")));
+        assertThrows(NoTasksFoundException.class, () -> manager.findDueBy(LocalDate.parse("2019-12-31")));
+    }
+
+    @Test
+    void keepSortedMaintainsDateViewWithoutReordering() {
+        TaskManager manager = new TaskManager(new Storage(new StorageParser()));
+        DeadlineTask later = new DeadlineTask("return book", LocalDate.parse("2020-01-02"));
+        TodoTask todo = new TodoTask("read something");
+        manager.add(later);
+        manager.add(todo);
+        manager.setKeptSorted(true);
+
+        DeadlineTask soon = new DeadlineTask("submit report", LocalDate.parse("2020-01-01"));
+        manager.add(soon);
+        manager.add(new DeadlineTask("pay rent", LocalDate.parse("2020-01-02")));
+
+        assertEquals(later, manager.get(0));
+        assertEquals("3.[D][ ] submit report (by: Jan 01 2020)\n"
+            + "1.[D][ ] return book (by: Jan 02 2020)\n"
+            + "4.[D][ ] pay rent (by: Jan 02 2020)\n"
+            + "2.[T][ ] read something", manager.toSortedString());
+
+        manager.delete(0);
+        assertEquals("2.[D][ ] submit report (by: Jan 01 2020)\n"
+            + "3.[D][ ] pay rent (by: Jan 02 2020)\n"
+            + "1.[T][ ] read something", manager.toSortedString());
+    }
+
+    @Test
+    void idAddressingSurvivesDeletesAndPositionsSkipEmptySlots() {
+        TaskManager manager = new TaskManager(new Storage(new StorageParser()));
+        for (int i = 1; i <= 6; i++) {
+            manager.add(new TodoTask("task " + i));
+        }
+        assertEquals(3, manager.get(2).getId());
+
+        assertEquals(2, manager.deleteAllById(new long[] {4, 2}).size());
+        assertEquals(4, manager.size());
+        assertEquals("task 3", manager.get(1).getDescription());
+        assertEquals("task 5", manager.getById(5).getDescription());
+        assertEquals(null, manager.getById(2));
+
+        manager.markTasksAsDone(new int[] {1, 3});
+        assertTrue(manager.getById(3).isDone());
+        assertTrue(manager.getById(6).isDone());
+        manager.markTasksAsUndoneById(new long[] {6});
+        assertFalse(manager.get(3).isDone());
+
+        InvalidTaskIndexException thrown = assertThrows(InvalidTaskIndexException.class, () ->
+            manager.markTasksAsDoneById(new long[] {1, 2, 9}));
+        assertEquals("#2, #9", thrown.invalidNumbers);
+        assertFalse(manager.getById(1).isDone());
+
+        manager.delete(0);
+        assertEquals("1.[T][X] task 3\n2.[T][ ] task 5\n3.[T][ ] task 6", manager.toString());
+        assertEquals("task 6", manager.getById(6).getDescription());
+        assertEquals(3, new TaskManager(new Storage(new StorageParser())).size());
+    }
+
+    @Test
+    void cachedDisplayStringFollowsMarkAndUnmark() {
+        TaskManager manager = new TaskManager(new Storage(new StorageParser()));
+        EventTask event = new EventTask("fair", LocalDate.parse("2019-12-02"), LocalDate.parse("2019-12-04"));
+        manager.add(event);
+        String undone = event.toString();
+        assertTrue(undone == event.toString());
+
+        manager.markTaskAsDone(0);
+        assertEquals("[E][X] fair (from: Dec 02 2019 to: Dec 04 2019)", event.toString());
+        assertEquals("1.[E][X] fair (from: Dec 02 2019 to: Dec 04 2019)", manager.toString());
+
+        manager.markTaskAsUndone(0);
+        assertEquals(undone, event.toString());
+    }
+
+    @Test
+    void doneStatusCountsAndListingsFollowMutations() {
+        TaskManager manager = new TaskManager(new Storage(new StorageParser()));
+        for (int i = 1; i <= 6; i++) {
+            manager.add(new TodoTask("task " + i));
+        }
+        assertEquals("", manager.toStatusString(true));
+
+        manager.markTasksAsDone(new int[] {1, 3, 4});
+        manager.markTaskAsUndone(3);
+        manager.markTasksAsDoneById(new long[] {6});
+        assertEquals(3, manager.countDone());
+        assertEquals(3, manager.countUndone());
+
+        manager.deleteAllById(new long[] {1, 3});
+        assertEquals("1.[T][X] task 2\n3.[T][X] task 5\n4.[T][X] task 6", manager.toStatusString(true));
+        assertEquals("2.[T][ ] task 4", manager.toStatusString(false));
+
+        manager.markTaskAsUndone(0);
+        assertEquals(2, manager.deleteDone().size());
+        assertEquals(0, manager.countDone());
+        assertEquals("1.[T][ ] task 2\n2.[T][ ] task 4", manager.toStatusString(false));
+
+        TaskManager reloaded = new TaskManager(new Storage(new StorageParser()));
+        assertEquals(0, reloaded.countDone());
+        assertEquals(2, reloaded.countUndone());
+    }
 }